@@ -0,0 +1,257 @@
+package com.zephyrstack.fxlib.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Semaphore-style bulkhead: at most {@code maxConcurrentCalls} calls to one dependency run at a time, at most
+ * {@code maxWaitingCalls} more wait in a FIFO queue, and everything beyond that fails fast with
+ * {@link BulkheadFullException}. Waiting never blocks a thread for asynchronous calls, so a degraded dependency
+ * holds only its own slots.
+ * <p>
+ * {@link #executeAsync(Supplier)} has the same shape as {@link CircuitBreaker#executeAsync(Supplier)} and
+ * {@link Retry#executeAsync(Supplier)}, so the three nest, e.g.
+ * {@code retry.executeAsync(() -> breaker.executeAsync(() -> bulkhead.executeAsync(call)))}.
+ * <p>
+ * All state is guarded by one monitor; waiters are completed outside of it.
+ */
+public final class Bulkhead {
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final int maxWaitingCalls;
+    private final Duration maxWait;
+
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int activeCalls;
+    private long admitted;
+    private long rejected;
+    private long timedOut;
+
+    /**
+     * Current occupancy and lifetime counters.
+     */
+    public record Metrics(int activeCalls,
+                          int availableCalls,
+                          int waitingCalls,
+                          long admittedCalls,
+                          long rejectedCalls,
+                          long timedOutCalls) {
+    }
+
+    private Bulkhead(Builder builder) {
+        this.name = builder.name;
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+        this.maxWaitingCalls = builder.maxWaitingCalls;
+        this.maxWait = builder.maxWait;
+    }
+
+    public static Builder newBuilder(String name) {
+        return new Builder(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Takes a slot if one is free right now; never waits. A true result must be paired with
+     * {@link #releasePermission()}.
+     */
+    public boolean tryAcquirePermission() {
+        synchronized (this) {
+            if (activeCalls < maxConcurrentCalls && waiters.isEmpty()) {
+                activeCalls++;
+                admitted++;
+                return true;
+            }
+            rejected++;
+            return false;
+        }
+    }
+
+    /**
+     * Completes once a slot is held, or fails with {@link BulkheadFullException} when the wait queue is full or
+     * the wait exceeds {@code maxWait}. Cancelling the future while it waits leaves the queue.
+     */
+    public CompletableFuture<Void> acquirePermission() {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (activeCalls < maxConcurrentCalls && waiters.isEmpty()) {
+                activeCalls++;
+                admitted++;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (waiters.size() >= maxWaitingCalls) {
+                rejected++;
+                return CompletableFuture.failedFuture(full());
+            }
+            waiter = new CompletableFuture<>();
+            waiters.addLast(waiter);
+        }
+        if (maxWait != null) {
+            try {
+                ScheduledFuture<?> timeout = FxExecutors.scheduler()
+                        .schedule(() -> expire(waiter), maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                waiter.whenComplete((ignored, failure) -> timeout.cancel(false));
+            } catch (RejectedExecutionException ex) {
+                // no scheduler left to time out on; wait without a deadline
+            }
+        }
+        waiter.whenComplete((ignored, failure) -> {
+            if (failure instanceof CancellationException) {
+                synchronized (this) {
+                    waiters.remove(waiter);
+                }
+            }
+        });
+        return waiter;
+    }
+
+    /**
+     * Frees a slot, handing it straight to the oldest waiter if there is one.
+     */
+    public void releasePermission() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.pollFirst();
+                if (next == null) {
+                    if (activeCalls > 0) activeCalls--;
+                    return;
+                }
+                admitted++;
+            }
+            if (next.complete(null)) return;
+            synchronized (this) {
+                admitted--;
+            }
+        }
+    }
+
+    /**
+     * Runs {@code call} once a slot is held and keeps the slot until its stage completes. Cancelling the returned
+     * future withdraws a waiting call or cancels a running one.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<? extends CompletionStage<T>> call) {
+        Objects.requireNonNull(call, "call");
+        CompletableFuture<Void> admission = acquirePermission();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FxFutures.propagateCancellation(result, admission);
+        admission.whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            if (result.isDone()) {
+                releasePermission();
+                return;
+            }
+            CompletableFuture<T> stage;
+            try {
+                stage = Objects.requireNonNull(call.get(), "call returned null stage").toCompletableFuture();
+            } catch (RuntimeException ex) {
+                releasePermission();
+                result.completeExceptionally(ex);
+                return;
+            }
+            FxFutures.propagateCancellation(result, stage);
+            stage.whenComplete((value, throwable) -> {
+                releasePermission();
+                if (throwable != null) result.completeExceptionally(throwable);
+                else result.complete(value);
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Blocking variant for synchronous callers, waiting in the same queue.
+     */
+    public <T> T execute(Callable<T> callable) throws Exception {
+        Objects.requireNonNull(callable, "callable");
+        CompletableFuture<Void> admission = acquirePermission();
+        try {
+            admission.get();
+        } catch (InterruptedException ex) {
+            if (!admission.cancel(false) && !admission.isCompletedExceptionally()) releasePermission();
+            throw ex;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception cause) throw cause;
+            throw ex;
+        }
+        try {
+            return callable.call();
+        } finally {
+            releasePermission();
+        }
+    }
+
+    public synchronized Metrics metrics() {
+        return new Metrics(activeCalls, maxConcurrentCalls - activeCalls, waiters.size(), admitted, rejected, timedOut);
+    }
+
+    private void expire(CompletableFuture<Void> waiter) {
+        synchronized (this) {
+            if (!waiters.remove(waiter)) return;
+            timedOut++;
+            rejected++;
+        }
+        waiter.completeExceptionally(new BulkheadFullException(
+                "Bulkhead '" + name + "' did not free a slot within " + maxWait));
+    }
+
+    private BulkheadFullException full() {
+        return new BulkheadFullException("Bulkhead '" + name + "' is full (" + maxConcurrentCalls + " running, "
+                + maxWaitingCalls + " waiting)");
+    }
+
+    public static final class Builder {
+        private final String name;
+        private int maxConcurrentCalls = 10;
+        private int maxWaitingCalls;
+        private Duration maxWait;
+
+        private Builder(String name) {
+            this.name = Objects.requireNonNull(name, "name");
+        }
+
+        public Builder maxConcurrentCalls(int calls) {
+            if (calls <= 0) throw new IllegalArgumentException("maxConcurrentCalls must be > 0");
+            this.maxConcurrentCalls = calls;
+            return this;
+        }
+
+        /**
+         * Calls allowed to wait for a slot; 0 (the default) rejects as soon as all slots are taken.
+         */
+        public Builder maxWaitingCalls(int calls) {
+            if (calls < 0) throw new IllegalArgumentException("maxWaitingCalls must be >= 0");
+            this.maxWaitingCalls = calls;
+            return this;
+        }
+
+        /**
+         * Longest time a call may wait for a slot before it is rejected; unbounded by default.
+         */
+        public Builder maxWait(Duration maxWait) {
+            Objects.requireNonNull(maxWait, "maxWait");
+            if (maxWait.isNegative() || maxWait.isZero()) throw new IllegalArgumentException("maxWait must be > 0");
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public Bulkhead build() {
+            return new Bulkhead(this);
+        }
+    }
+}
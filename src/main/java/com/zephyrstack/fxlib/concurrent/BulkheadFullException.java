@@ -0,0 +1,12 @@
+package com.zephyrstack.fxlib.concurrent;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thrown when a {@link Bulkhead} or {@link ThreadPoolBulkhead} has no free slot and no room left to wait for one.
+ */
+public final class BulkheadFullException extends RejectedExecutionException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -1,103 +1,600 @@
 package com.zephyrstack.fxlib.concurrent;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
- * Basic circuit breaker: when failures exceed a threshold it opens for a cooldown period,
- * then transitions to HALF_OPEN allowing a limited number of trial calls.
+ * Lock-free circuit breaker. While CLOSED, call outcomes go into a sliding window (the last N calls, or the calls of
+ * the last time span); the breaker opens when the failure rate or the slow-call rate over that window reaches its
+ * threshold, or after a run of consecutive failures. After {@code openDuration} it lets exactly
+ * {@code permittedCallsInHalfOpen} trial calls through; the first failed (or, with a slow-call threshold, slow) trial
+ * reopens it, and once all trials succeed it closes with a fresh window.
+ * <p>
+ * The state and its per-state data form one immutable snapshot swapped by CAS, so every transition happens exactly
+ * once. A {@link Permit} remembers the snapshot that granted it, so outcomes and releases of calls admitted in an
+ * earlier state are ignored instead of corrupting the current one: a call admitted while CLOSED that finishes after
+ * the breaker half-opened neither counts as a trial nor frees a trial slot.
  */
 public final class CircuitBreaker {
     public enum State { CLOSED, OPEN, HALF_OPEN }
 
-    private final int failureThreshold;
+    private static final float DISABLED = Float.NaN;
+    private static final int TIME_WINDOW_BUCKETS = 10;
+
+    private final int windowSize;
+    private final Duration windowDuration;
+    private final int minimumNumberOfCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int consecutiveFailureThreshold;
     private final Duration openDuration;
-    private final int halfOpenTrialCount;
+    private final long openNanos;
+    private final int permittedCallsInHalfOpen;
+
+    private final AtomicReference<Phase> phase;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder notPermitted = new LongAdder();
+    private final List<Consumer<StateTransition>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Emitted to state listeners after each transition.
+     */
+    public record StateTransition(State from, State to, Instant at) {
+    }
 
-    private final AtomicInteger failureCounter = new AtomicInteger();
-    private final AtomicInteger halfOpenSuccessCounter = new AtomicInteger();
-    private volatile State state = State.CLOSED;
-    private volatile long openSince = -1;
+    /**
+     * Counters of the current window; rates are percentages of {@code bufferedCalls}.
+     */
+    public record Metrics(State state, int bufferedCalls, int failedCalls, int slowCalls, long notPermittedCalls) {
+        public float failureRate() {
+            return bufferedCalls == 0 ? 0 : failedCalls * 100f / bufferedCalls;
+        }
+
+        public float slowCallRate() {
+            return bufferedCalls == 0 ? 0 : slowCalls * 100f / bufferedCalls;
+        }
+    }
 
+    /**
+     * Classic breaker: opens after {@code failureThreshold} consecutive failures and closes after
+     * {@code halfOpenTrialCount} successful trial calls.
+     */
     public CircuitBreaker(int failureThreshold,
                           Duration openDuration,
                           int halfOpenTrialCount) {
+        this(legacy(failureThreshold, openDuration, halfOpenTrialCount));
+    }
+
+    private CircuitBreaker(Builder builder) {
+        this.windowSize = builder.windowSize;
+        this.windowDuration = builder.windowDuration;
+        this.minimumNumberOfCalls = windowDuration == null
+                ? Math.min(builder.minimumNumberOfCalls, windowSize)
+                : builder.minimumNumberOfCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallNanos = builder.slowCallDuration == null ? 0 : builder.slowCallDuration.toNanos();
+        this.consecutiveFailureThreshold = builder.consecutiveFailureThreshold;
+        this.openDuration = builder.openDuration;
+        this.openNanos = openDuration.toNanos();
+        this.permittedCallsInHalfOpen = builder.permittedCallsInHalfOpen;
+        this.phase = new AtomicReference<>(closedPhase());
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private static Builder legacy(int failureThreshold, Duration openDuration, int halfOpenTrialCount) {
         if (failureThreshold <= 0) throw new IllegalArgumentException("failureThreshold must be > 0");
-        Objects.requireNonNull(openDuration, "openDuration");
-        if (openDuration.isNegative() || openDuration.isZero()) {
-            throw new IllegalArgumentException("openDuration must be > 0");
-        }
-        if (halfOpenTrialCount <= 0) throw new IllegalArgumentException("halfOpenTrialCount must be > 0");
-        this.failureThreshold = failureThreshold;
-        this.openDuration = openDuration;
-        this.halfOpenTrialCount = halfOpenTrialCount;
+        Builder builder = newBuilder()
+                .consecutiveFailureThreshold(failureThreshold)
+                .openDuration(openDuration)
+                .permittedCallsInHalfOpen(halfOpenTrialCount)
+                .slidingWindow(1);
+        builder.failureRateThreshold = DISABLED;
+        return builder;
     }
 
     public <T> T execute(Callable<T> callable) throws Exception {
         Objects.requireNonNull(callable, "callable");
-        State current = state;
-        if (current == State.OPEN) {
-            if (System.currentTimeMillis() - openSince >= openDuration.toMillis()) {
-                transitionTo(State.HALF_OPEN);
-            } else {
-                throw new CircuitBreakerOpenException("Circuit breaker is open; retries after " + openDuration);
-            }
-        }
-        if (state == State.HALF_OPEN && halfOpenSuccessCounter.get() >= halfOpenTrialCount) {
-            // Enough successful trials => close
-            transitionTo(State.CLOSED);
+        Permit permit = tryAcquirePermit();
+        if (permit == null) {
+            throw new CircuitBreakerOpenException("Circuit breaker is open; retries after " + openDuration);
         }
 
         try {
             T result = callable.call();
-            onSuccess();
+            permit.recordSuccess();
             return result;
-        } catch (Exception ex) {
-            onFailure();
-            throw ex;
+        } catch (Throwable failure) {
+            permit.recordFailure();
+            throw failure;
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #execute(Callable)}: the outcome and duration are recorded when the stage
+     * completes, so no thread waits on the call. Fails with {@link CircuitBreakerOpenException} without calling
+     * {@code call} while the breaker rejects calls; cancelling the returned future cancels the call and gives its
+     * permission back.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<? extends CompletionStage<T>> call) {
+        Objects.requireNonNull(call, "call");
+        Permit permit = tryAcquirePermit();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(
+                    new CircuitBreakerOpenException("Circuit breaker is open; retries after " + openDuration));
+        }
+        CompletableFuture<T> stage;
+        try {
+            stage = Objects.requireNonNull(call.get(), "call returned null stage").toCompletableFuture();
+        } catch (RuntimeException ex) {
+            permit.recordFailure();
+            return CompletableFuture.failedFuture(ex);
+        } catch (Error error) {
+            permit.recordFailure();
+            throw error;
         }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FxFutures.propagateCancellation(result, stage);
+        stage.whenComplete((value, throwable) -> {
+            if (throwable == null) {
+                permit.recordSuccess();
+                result.complete(value);
+            } else if (stage.isCancelled() || result.isCancelled()) {
+                permit.release();
+                result.completeExceptionally(throwable);
+            } else {
+                permit.recordFailure();
+                result.completeExceptionally(throwable);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Admission check for callers that run the protected call themselves (e.g. asynchronous pipelines). Returns
+     * null when the call is rejected; otherwise the caller must settle the permit exactly once with its outcome or
+     * {@link Permit#release()}.
+     */
+    public Permit tryAcquirePermit() {
+        Phase granted = admit();
+        return granted == null ? null : new Permit(granted);
+    }
+
+    /**
+     * Boolean form of {@link #tryAcquirePermit()}, paired with {@link #recordSuccess()}, {@link #recordFailure()}
+     * or {@link #releasePermission()}. Those apply to whatever state is current when they are called, so a call
+     * that outlives a state change is counted against the new state; prefer permits.
+     */
+    public boolean tryAcquirePermission() {
+        return admit() != null;
+    }
+
+    /**
+     * Returns a permission whose call was abandoned (e.g. cancelled) without an outcome, so a half-open trial slot
+     * is not lost.
+     */
+    public void releasePermission() {
+        release(phase.get());
+    }
+
+    public void recordSuccess() {
+        onResult(phase.get(), false, 0);
+    }
+
+    public void recordFailure() {
+        onResult(phase.get(), true, 0);
+    }
+
+    /**
+     * Records a success that took {@code durationNanos}, which counts as slow past the slow-call threshold.
+     */
+    public void recordSuccess(long durationNanos) {
+        onResult(phase.get(), false, durationNanos);
+    }
+
+    public void recordFailure(long durationNanos) {
+        onResult(phase.get(), true, durationNanos);
     }
 
     public State state() {
-        return state;
+        return phase.get().state;
     }
 
-    private synchronized void transitionTo(State newState) {
-        state = newState;
-        switch (newState) {
-            case CLOSED -> {
-                failureCounter.set(0);
-                halfOpenSuccessCounter.set(0);
-                openSince = -1;
+    public Metrics metrics() {
+        Phase current = phase.get();
+        if (current.window == null) return new Metrics(current.state, 0, 0, 0, notPermitted.sum());
+        long[] counts = current.window.snapshot();
+        return new Metrics(current.state, (int) counts[0], (int) counts[1], (int) counts[2], notPermitted.sum());
+    }
+
+    /**
+     * Registers a listener called on the transitioning thread after every state change.
+     */
+    public AutoCloseable addStateListener(Consumer<StateTransition> listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Forces the breaker open, e.g. for maintenance windows; it half-opens after {@code openDuration} as usual.
+     */
+    public void transitionToOpen() {
+        Phase current;
+        do {
+            current = phase.get();
+        } while (current.state != State.OPEN && !transition(current, openPhase()));
+    }
+
+    /**
+     * Closes the breaker and clears its window.
+     */
+    public void reset() {
+        Phase current;
+        do {
+            current = phase.get();
+        } while (!transition(current, closedPhase()));
+    }
+
+    /**
+     * Returns the snapshot that admits the call, or null when it is rejected.
+     */
+    private Phase admit() {
+        while (true) {
+            Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED -> {
+                    return current;
+                }
+                case OPEN -> {
+                    if (System.nanoTime() - current.openedAt < openNanos) {
+                        notPermitted.increment();
+                        return null;
+                    }
+                    transition(current, halfOpenPhase());
+                }
+                case HALF_OPEN -> {
+                    if (current.takeTrial()) return current;
+                    notPermitted.increment();
+                    return null;
+                }
             }
-            case OPEN -> {
-                openSince = System.currentTimeMillis();
+        }
+    }
+
+    private void release(Phase granted) {
+        if (granted.state == State.HALF_OPEN && phase.get() == granted) granted.trials.incrementAndGet();
+    }
+
+    /**
+     * Applies an outcome to the snapshot that admitted the call; once that snapshot has been replaced the outcome
+     * no longer says anything about the current state and is dropped.
+     */
+    private void onResult(Phase current, boolean failure, long durationNanos) {
+        if (phase.get() != current) return;
+        boolean slow = slowCallNanos > 0 && durationNanos >= slowCallNanos;
+        switch (current.state) {
+            case CLOSED -> {
+                int consecutive = failure ? consecutiveFailures.incrementAndGet() : 0;
+                if (!failure && consecutiveFailures.get() != 0) consecutiveFailures.set(0);
+                current.window.record(failure, slow);
+                if ((consecutiveFailureThreshold > 0 && consecutive >= consecutiveFailureThreshold)
+                        || thresholdExceeded(current.window)) {
+                    transition(current, openPhase());
+                }
             }
             case HALF_OPEN -> {
-                halfOpenSuccessCounter.set(0);
+                if (failure || (slow && !Float.isNaN(slowCallRateThreshold))) {
+                    transition(current, openPhase());
+                } else if (current.successes.incrementAndGet() >= permittedCallsInHalfOpen) {
+                    transition(current, closedPhase());
+                }
+            }
+            case OPEN -> {
+                // outcome of a call admitted before the breaker opened
             }
         }
     }
 
-    private void onSuccess() {
-        if (state == State.HALF_OPEN) {
-            if (halfOpenSuccessCounter.incrementAndGet() >= halfOpenTrialCount) {
-                transitionTo(State.CLOSED);
+    private boolean thresholdExceeded(Window window) {
+        if (Float.isNaN(failureRateThreshold) && Float.isNaN(slowCallRateThreshold)) return false;
+        long[] counts = window.snapshot();
+        long calls = counts[0];
+        if (calls < minimumNumberOfCalls || calls == 0) return false;
+        return (!Float.isNaN(failureRateThreshold) && counts[1] * 100f >= failureRateThreshold * calls)
+                || (!Float.isNaN(slowCallRateThreshold) && counts[2] * 100f >= slowCallRateThreshold * calls);
+    }
+
+    private boolean transition(Phase from, Phase to) {
+        if (!phase.compareAndSet(from, to)) return false;
+        if (to.state == State.CLOSED) consecutiveFailures.set(0);
+        if (!listeners.isEmpty() && from.state != to.state) {
+            StateTransition event = new StateTransition(from.state, to.state, Instant.now());
+            for (Consumer<StateTransition> listener : listeners) listener.accept(event);
+        }
+        return true;
+    }
+
+    private Phase closedPhase() {
+        Window window = windowDuration == null ? new CountWindow(windowSize) : new TimeWindow(windowDuration);
+        return new Phase(State.CLOSED, 0, window, 0);
+    }
+
+    private Phase openPhase() {
+        return new Phase(State.OPEN, System.nanoTime(), null, 0);
+    }
+
+    private Phase halfOpenPhase() {
+        return new Phase(State.HALF_OPEN, 0, null, permittedCallsInHalfOpen);
+    }
+
+    /**
+     * Permission for one call, bound to the breaker state that granted it. Settle it once: with the call's outcome,
+     * timed from acquisition, or with {@link #release()} when the call was abandoned. Later settlements are ignored.
+     */
+    public final class Permit {
+        private static final AtomicIntegerFieldUpdater<Permit> SETTLED =
+                AtomicIntegerFieldUpdater.newUpdater(Permit.class, "settled");
+
+        private final Phase granted;
+        private final long start = System.nanoTime();
+        private volatile int settled;
+
+        private Permit(Phase granted) {
+            this.granted = granted;
+        }
+
+        public void recordSuccess() {
+            if (SETTLED.compareAndSet(this, 0, 1)) onResult(granted, false, System.nanoTime() - start);
+        }
+
+        public void recordFailure() {
+            if (SETTLED.compareAndSet(this, 0, 1)) onResult(granted, true, System.nanoTime() - start);
+        }
+
+        /**
+         * Gives the permission back without an outcome, freeing a half-open trial slot if it held one.
+         */
+        public void release() {
+            if (SETTLED.compareAndSet(this, 0, 1)) CircuitBreaker.this.release(granted);
+        }
+    }
+
+    /**
+     * Immutable state plus the mutable counters that belong to it; replaced as a whole on every transition.
+     */
+    private static final class Phase {
+        private final State state;
+        private final long openedAt;
+        private final Window window;
+        private final AtomicInteger trials;
+        private final AtomicInteger successes = new AtomicInteger();
+
+        private Phase(State state, long openedAt, Window window, int trials) {
+            this.state = state;
+            this.openedAt = openedAt;
+            this.window = window;
+            this.trials = new AtomicInteger(trials);
+        }
+
+        private boolean takeTrial() {
+            int left;
+            do {
+                left = trials.get();
+                if (left <= 0) return false;
+            } while (!trials.compareAndSet(left, left - 1));
+            return true;
+        }
+    }
+
+    private interface Window {
+        void record(boolean failure, boolean slow);
+
+        /**
+         * {@code [calls, failures, slowCalls]}.
+         */
+        long[] snapshot();
+    }
+
+    /**
+     * Ring buffer of the last {@code size} outcomes. Totals are adjusted by the difference between the outcome
+     * written and the one it replaced, so they always match the buffer even when writers overtake each other.
+     */
+    private static final class CountWindow implements Window {
+        private static final int RECORDED = 1;
+        private static final int FAILED = 2;
+        private static final int SLOW = 4;
+
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        private CountWindow(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+        }
+
+        @Override
+        public void record(boolean failure, boolean slow) {
+            int outcome = RECORDED | (failure ? FAILED : 0) | (slow ? SLOW : 0);
+            int slot = (int) (cursor.getAndIncrement() % outcomes.length());
+            int replaced = outcomes.getAndSet(slot, outcome);
+            if (replaced == 0) calls.incrementAndGet();
+            int failedDelta = (outcome & FAILED) - (replaced & FAILED);
+            if (failedDelta != 0) failures.addAndGet(failedDelta / FAILED);
+            int slowDelta = (outcome & SLOW) - (replaced & SLOW);
+            if (slowDelta != 0) slowCalls.addAndGet(slowDelta / SLOW);
+        }
+
+        @Override
+        public long[] snapshot() {
+            return new long[]{calls.get(), failures.get(), slowCalls.get()};
+        }
+    }
+
+    /**
+     * Outcomes of the last {@code duration}, in {@value #TIME_WINDOW_BUCKETS} buckets. Every counter packs the
+     * bucket's epoch into its upper half, so rolling a bucket over and counting into it is one CAS and a stale
+     * bucket is recognised by its epoch on read.
+     */
+    private static final class TimeWindow implements Window {
+        private final long origin = System.nanoTime();
+        private final long bucketNanos;
+        private final AtomicLongArray counters = new AtomicLongArray(TIME_WINDOW_BUCKETS * 3);
+
+        private TimeWindow(Duration duration) {
+            this.bucketNanos = Math.max(1, duration.toNanos() / TIME_WINDOW_BUCKETS);
+        }
+
+        @Override
+        public void record(boolean failure, boolean slow) {
+            int epoch = epoch();
+            int base = Math.floorMod(epoch, TIME_WINDOW_BUCKETS) * 3;
+            bump(base, epoch);
+            if (failure) bump(base + 1, epoch);
+            if (slow) bump(base + 2, epoch);
+        }
+
+        @Override
+        public long[] snapshot() {
+            int epoch = epoch();
+            long[] totals = new long[3];
+            for (int i = 0; i < counters.length(); i++) {
+                long packed = counters.get(i);
+                int age = epoch - (int) (packed >>> 32);
+                if (packed != 0 && age >= 0 && age < TIME_WINDOW_BUCKETS) totals[i % 3] += packed & 0xFFFFFFFFL;
+            }
+            return totals;
+        }
+
+        private int epoch() {
+            return (int) ((System.nanoTime() - origin) / bucketNanos);
+        }
+
+        private void bump(int index, int epoch) {
+            while (true) {
+                long packed = counters.get(index);
+                long next = (int) (packed >>> 32) == epoch && packed != 0
+                        ? packed + 1
+                        : ((long) epoch << 32) | 1;
+                if (counters.compareAndSet(index, packed, next)) return;
             }
-        } else if (state == State.CLOSED) {
-            failureCounter.set(0);
         }
     }
 
-    private void onFailure() {
-        if (state == State.HALF_OPEN) {
-            transitionTo(State.OPEN);
-        } else if (state == State.CLOSED) {
-            if (failureCounter.incrementAndGet() >= failureThreshold) {
-                transitionTo(State.OPEN);
+    public static final class Builder {
+        private int windowSize = 100;
+        private Duration windowDuration;
+        private int minimumNumberOfCalls = 10;
+        private float failureRateThreshold = 50f;
+        private float slowCallRateThreshold = DISABLED;
+        private Duration slowCallDuration;
+        private int consecutiveFailureThreshold;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpen = 5;
+
+        private Builder() {
+        }
+
+        /**
+         * Evaluate the last {@code calls} outcomes (the default, with 100 calls).
+         */
+        public Builder slidingWindow(int calls) {
+            if (calls <= 0) throw new IllegalArgumentException("calls must be > 0");
+            this.windowSize = calls;
+            this.windowDuration = null;
+            return this;
+        }
+
+        /**
+         * Evaluate the outcomes of the last {@code duration} instead of a fixed number of calls.
+         */
+        public Builder slidingWindow(Duration duration) {
+            Objects.requireNonNull(duration, "duration");
+            if (duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("duration must be > 0");
+            this.windowDuration = duration;
+            return this;
+        }
+
+        /**
+         * Rates are not evaluated until the window holds this many calls.
+         */
+        public Builder minimumNumberOfCalls(int calls) {
+            if (calls <= 0) throw new IllegalArgumentException("calls must be > 0");
+            this.minimumNumberOfCalls = calls;
+            return this;
+        }
+
+        /**
+         * Failure rate in percent at which the breaker opens; default 50.
+         */
+        public Builder failureRateThreshold(float percent) {
+            this.failureRateThreshold = checkPercent(percent);
+            return this;
+        }
+
+        /**
+         * Calls taking at least {@code threshold} are slow; the breaker opens when {@code percent} of the window is
+         * slow, and a slow half-open trial counts as failed.
+         */
+        public Builder slowCallThreshold(Duration threshold, float percent) {
+            Objects.requireNonNull(threshold, "threshold");
+            if (threshold.isNegative() || threshold.isZero()) throw new IllegalArgumentException("threshold must be > 0");
+            this.slowCallDuration = threshold;
+            this.slowCallRateThreshold = checkPercent(percent);
+            return this;
+        }
+
+        /**
+         * Also open after this many failures in a row, regardless of the window; 0 disables.
+         */
+        public Builder consecutiveFailureThreshold(int failures) {
+            if (failures < 0) throw new IllegalArgumentException("failures must be >= 0");
+            this.consecutiveFailureThreshold = failures;
+            return this;
+        }
+
+        public Builder openDuration(Duration duration) {
+            Objects.requireNonNull(duration, "openDuration");
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("openDuration must be > 0");
             }
+            this.openDuration = duration;
+            return this;
+        }
+
+        public Builder permittedCallsInHalfOpen(int calls) {
+            if (calls <= 0) throw new IllegalArgumentException("halfOpenTrialCount must be > 0");
+            this.permittedCallsInHalfOpen = calls;
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+
+        private static float checkPercent(float percent) {
+            if (!(percent > 0 && percent <= 100)) throw new IllegalArgumentException("percent must be in (0, 100]");
+            return percent;
         }
     }
 }
@@ -1,47 +1,652 @@
 package com.zephyrstack.fxlib.concurrent;
 
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 /**
- * Minimal synchronous event bus keyed by event type. Subscribers are invoked immediately on the calling thread.
+ * Minimal event bus keyed by event type. A subscriber to a type receives events of that type and of all its
+ * subtypes, so subscribing to an interface or superclass of a domain event works.
+ * <p>
+ * Plain subscribers are invoked immediately on the publishing thread, highest priority first and in subscription
+ * order within a priority. Asynchronous subscribers name an executor (the FX thread, a virtual-thread executor, a
+ * background pool…) and get their own bounded queue, drained by at most one task at a time on that executor, so
+ * they see events in publish order and a slow one never stalls the publisher. When a subscriber's queue is full,
+ * further events are dropped for that subscriber only and counted in {@link #stats()}.
+ * <p>
+ * Publishing looks up a dispatch table per concrete event class: the subscribers of every supertype, already
+ * sorted, so the hot path is one map lookup and an array walk, without reflection, sorting or allocation. A table is
+ * built once, on the first publish of its class, and then kept current in place: subscribing appends to the tables
+ * the new subscriber belongs in and closing clears its slots, both amortised O(1) per table, so high
+ * subscribe/unsubscribe churn (recycled table cells, for example) neither copies subscriber lists nor makes the next
+ * publish rebuild anything.
+ * <p>
+ * Subscriptions normally live until closed. For UI code that forgets to close them,
+ * {@link #subscribeWeakly(Class, Object, BiConsumer)} holds its owner weakly and ends once the owner is collected,
+ * and {@link SubscriptionBuilder#boundTo(Node)} ends when a node leaves its scene. {@link #diagnostics()} reports
+ * what is still subscribed and where it looks like subscriptions pile up.
  */
 public final class EventBus {
-    private final ConcurrentHashMap<Class<?>, CopyOnWriteArrayList<Consumer<?>>> listeners = new ConcurrentHashMap<>();
+    public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    public static final int DEFAULT_LEAK_THRESHOLD = 100;
+
+    private static final Comparator<Subscriber> DISPATCH_ORDER =
+            Comparator.comparingInt((Subscriber subscriber) -> -subscriber.priority)
+                    .thenComparingLong(subscriber -> subscriber.sequence);
+
+    /** Subscribers by subscribed type; this map is also the lock for every subscription change. */
+    private final Map<Class<?>, Set<Subscriber>> listeners = new HashMap<>();
+    /** Tables by each type their subscribers may subscribe to, i.e. every supertype of the table's class. */
+    private final Map<Class<?>, List<Table>> tablesBySubscribedType = new HashMap<>();
+    private final ConcurrentHashMap<Class<?>, Object> stickyEvents = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, Table> dispatch = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int queueCapacity;
+    private final LongAdder dropped = new LongAdder();
+    private final ReferenceQueue<Object> collectedOwners = new ReferenceQueue<>();
+    private volatile boolean trackSubscriptionSites;
+
+    /**
+     * {@code dropped} counts events lost to full subscriber queues over the bus lifetime. Publishes are not
+     * counted, to keep a shared counter off the hot path.
+     */
+    public record Stats(long dropped, int subscribers) {
+    }
+
+    /**
+     * Live subscriptions per subscribed type and the groups of them that look leaked.
+     */
+    public record Diagnostics(Map<Class<?>, Integer> subscribersByType, List<SuspectedLeak> suspectedLeaks) {
+    }
+
+    /**
+     * {@code subscriptions} live subscriptions to {@code eventType} made from {@code subscribedAt}, or from
+     * anywhere when call sites are not tracked ({@code subscribedAt} is then null).
+     */
+    public record SuspectedLeak(Class<?> eventType, String subscribedAt, int subscriptions) {
+    }
+
+    public EventBus() {
+        this(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param queueCapacity undelivered events each asynchronous subscriber may hold
+     */
+    public EventBus(int queueCapacity) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be > 0");
+        this.queueCapacity = queueCapacity;
+    }
 
     /**
-     * Subscribes to a concrete event type. Returns an {@link AutoCloseable} that removes the handler when closed.
+     * Subscribes to an event type and its subtypes. Returns an {@link AutoCloseable} that removes the handler
+     * when closed.
      */
     public <T> AutoCloseable subscribe(Class<T> eventType, Consumer<T> handler) {
-        Objects.requireNonNull(eventType, "eventType");
-        Objects.requireNonNull(handler, "handler");
-        CopyOnWriteArrayList<Consumer<?>> list = listeners.computeIfAbsent(eventType, ignored -> new CopyOnWriteArrayList<>());
-        list.add(handler);
-        return () -> list.remove(handler);
+        return subscription(eventType).subscribe(handler);
+    }
+
+    /**
+     * Subscribes with delivery on {@code executor}, one event at a time in publish order. Events still queued when
+     * the subscription is closed are discarded.
+     */
+    public <T> AutoCloseable subscribe(Class<T> eventType, Executor executor, Consumer<T> handler) {
+        return subscription(eventType).executor(executor).subscribe(handler);
+    }
+
+    /**
+     * Subscribes with delivery on {@code executor} in batches: every event published since the previous drain
+     * arrives in one list. With {@link FxExecutors#fx()} that is one call per pulse however fast events come in.
+     */
+    public <T> AutoCloseable subscribeBatched(Class<T> eventType,
+                                              Executor executor,
+                                              Consumer<? super List<T>> handler) {
+        return subscription(eventType).executor(executor).subscribeBatched(handler);
+    }
+
+    /**
+     * Shortcut for {@link #subscribeBatched(Class, Executor, Consumer)} on the FX Application Thread.
+     */
+    public <T> AutoCloseable subscribeOnFx(Class<T> eventType, Consumer<? super List<T>> handler) {
+        return subscribeBatched(eventType, FxExecutors.fx(), handler);
+    }
+
+    /**
+     * Subscribes on behalf of {@code owner}, which the bus only holds weakly: once the owner is garbage collected
+     * the subscription ends by itself. The handler receives the owner with each event and must not capture it
+     * (no {@code this::onEvent} from the owner), or it would keep the owner reachable.
+     */
+    public <T, O> AutoCloseable subscribeWeakly(Class<T> eventType, O owner, BiConsumer<? super O, ? super T> handler) {
+        return subscription(eventType).subscribeWeakly(owner, handler);
     }
 
     /**
-     * Publishes an event to all handlers registered for its concrete class. Supertype dispatch is not performed.
+     * Starts a subscription with options beyond the shortcuts: priority, executor and sticky replay.
+     */
+    public <T> SubscriptionBuilder<T> subscription(Class<T> eventType) {
+        return new SubscriptionBuilder<>(Objects.requireNonNull(eventType, "eventType"));
+    }
+
+    /**
+     * Publishes an event to all handlers registered for its class or any of its supertypes. Synchronous handlers
+     * have run when this returns; asynchronous ones have their event queued.
      */
     public void publish(Object event) {
         if (event == null) return;
         Class<?> type = event.getClass();
-        List<Consumer<?>> handlers = listeners.get(type);
-        if (handlers == null || handlers.isEmpty()) return;
-        for (Consumer<?> handler : handlers) {
-            @SuppressWarnings("unchecked")
-            Consumer<Object> consumer = (Consumer<Object>) handler;
-            consumer.accept(event);
+        Table table = dispatch.get(type);
+        if (table == null) table = createTable(type);
+        for (Subscriber target : table.slots) {
+            if (target != null) target.deliver(event);
+        }
+    }
+
+    /**
+     * Publishes the event and keeps it as the latest sticky event of its class, replayed to later subscribers
+     * that ask for it via {@link SubscriptionBuilder#sticky()}.
+     */
+    public void publishSticky(Object event) {
+        Objects.requireNonNull(event, "event");
+        stickyEvents.put(event.getClass(), event);
+        publish(event);
+    }
+
+    /**
+     * Latest sticky event assignable to {@code eventType}, if any.
+     */
+    public <T> T stickyEvent(Class<T> eventType) {
+        Objects.requireNonNull(eventType, "eventType");
+        Object exact = stickyEvents.get(eventType);
+        if (exact != null) return eventType.cast(exact);
+        for (Object event : stickyEvents.values()) {
+            if (eventType.isInstance(event)) return eventType.cast(event);
+        }
+        return null;
+    }
+
+    public void removeStickyEvent(Class<?> eventType) {
+        stickyEvents.remove(Objects.requireNonNull(eventType, "eventType"));
+    }
+
+    public Stats stats() {
+        purgeCollectedOwners();
+        int subscribers = 0;
+        synchronized (listeners) {
+            for (Set<Subscriber> subscribed : listeners.values()) subscribers += subscribed.size();
+        }
+        return new Stats(dropped.sum(), subscribers);
+    }
+
+    /**
+     * Records the call site of each new subscription, at the cost of a short stack walk per subscribe, so that
+     * {@link #diagnostics()} can tell which line keeps subscribing.
+     */
+    public void setTrackSubscriptionSites(boolean track) {
+        this.trackSubscriptionSites = track;
+    }
+
+    public Diagnostics diagnostics() {
+        return diagnostics(DEFAULT_LEAK_THRESHOLD);
+    }
+
+    /**
+     * Counts live subscriptions per type, after dropping those whose weak owner has been collected. A group of at
+     * least {@code leakThreshold} subscriptions to one type from one call site (or to one type at all, when sites
+     * are not tracked) is reported as a suspected leak, largest first.
+     */
+    public Diagnostics diagnostics(int leakThreshold) {
+        if (leakThreshold <= 0) throw new IllegalArgumentException("leakThreshold must be > 0");
+        purgeCollectedOwners();
+        Map<Class<?>, List<Subscriber>> snapshot = new LinkedHashMap<>();
+        synchronized (listeners) {
+            listeners.forEach((type, subscribed) -> snapshot.put(type, new ArrayList<>(subscribed)));
+        }
+        Map<Class<?>, Integer> counts = new LinkedHashMap<>();
+        List<SuspectedLeak> suspects = new ArrayList<>();
+        for (Map.Entry<Class<?>, List<Subscriber>> entry : snapshot.entrySet()) {
+            List<Subscriber> list = entry.getValue();
+            if (list.isEmpty()) continue;
+            counts.put(entry.getKey(), list.size());
+            Map<String, Integer> bySite = new HashMap<>();
+            for (Subscriber subscriber : list) bySite.merge(String.valueOf(subscriber.site), 1, Integer::sum);
+            for (Map.Entry<String, Integer> site : bySite.entrySet()) {
+                if (site.getValue() < leakThreshold) continue;
+                String subscribedAt = site.getKey().equals("null") ? null : site.getKey();
+                suspects.add(new SuspectedLeak(entry.getKey(), subscribedAt, site.getValue()));
+            }
         }
+        suspects.sort(Comparator.comparingInt(SuspectedLeak::subscriptions).reversed());
+        return new Diagnostics(Map.copyOf(counts), List.copyOf(suspects));
     }
 
     /**
-     * Removes all registered listeners.
+     * Removes all registered listeners and sticky events.
      */
     public void clear() {
-        listeners.clear();
+        List<Subscriber> removed = new ArrayList<>();
+        synchronized (listeners) {
+            for (Set<Subscriber> subscribed : listeners.values()) removed.addAll(subscribed);
+            listeners.clear();
+            tablesBySubscribedType.clear();
+            dispatch.clear();
+        }
+        stickyEvents.clear();
+        for (Subscriber subscriber : removed) subscriber.deactivate();
+    }
+
+    private void register(Subscriber subscriber) {
+        purgeCollectedOwners();
+        if (trackSubscriptionSites) subscriber.site = callSite();
+        synchronized (listeners) {
+            listeners.computeIfAbsent(subscriber.eventType, ignored -> new LinkedHashSet<>()).add(subscriber);
+            List<Table> tables = tablesBySubscribedType.get(subscriber.eventType);
+            if (tables != null) {
+                for (Table table : tables) table.insert(subscriber);
+            }
+        }
+    }
+
+    private void unregister(Subscriber subscriber) {
+        synchronized (listeners) {
+            Set<Subscriber> subscribed = listeners.get(subscriber.eventType);
+            if (subscribed == null || !subscribed.remove(subscriber)) return;
+            subscriber.leaveTables();
+        }
+    }
+
+    /**
+     * Ends subscriptions whose owner was collected, including those of types that are never published again.
+     */
+    private void purgeCollectedOwners() {
+        Reference<?> reference;
+        while ((reference = collectedOwners.poll()) != null) {
+            ((OwnerReference) reference).subscriber.close();
+        }
+    }
+
+    private static String callSite() {
+        String bus = EventBus.class.getName();
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith(bus))
+                .findFirst()
+                .map(StackWalker.StackFrame::toString)
+                .orElse(null));
+    }
+
+    /**
+     * Builds the table for {@code type} on its first publish and registers it under every supertype, so later
+     * subscriptions to any of them are added to it directly.
+     */
+    private Table createTable(Class<?> type) {
+        synchronized (listeners) {
+            Table table = dispatch.get(type);
+            if (table != null) return table;
+            Set<Class<?>> supertypes = supertypes(type);
+            List<Subscriber> targets = new ArrayList<>();
+            for (Class<?> supertype : supertypes) {
+                Set<Subscriber> subscribed = listeners.get(supertype);
+                if (subscribed != null) targets.addAll(subscribed);
+            }
+            targets.sort(DISPATCH_ORDER);
+            table = new Table(targets);
+            for (Class<?> supertype : supertypes) {
+                tablesBySubscribedType.computeIfAbsent(supertype, ignored -> new ArrayList<>()).add(table);
+            }
+            dispatch.put(type, table);
+            return table;
+        }
+    }
+
+    private static Set<Class<?>> supertypes(Class<?> type) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        ArrayDeque<Class<?>> pending = new ArrayDeque<>();
+        pending.add(type);
+        while (!pending.isEmpty()) {
+            Class<?> current = pending.poll();
+            if (!types.add(current)) continue;
+            if (current.getSuperclass() != null) pending.add(current.getSuperclass());
+            pending.addAll(Arrays.asList(current.getInterfaces()));
+        }
+        return types;
+    }
+
+    private void replaySticky(Class<?> eventType, Subscriber subscriber) {
+        for (Map.Entry<Class<?>, Object> entry : stickyEvents.entrySet()) {
+            if (eventType.isAssignableFrom(entry.getKey())) subscriber.deliver(entry.getValue());
+        }
+    }
+
+    /**
+     * Options for one subscription; finish with {@link #subscribe(Consumer)} or {@link #subscribeBatched(Consumer)}.
+     */
+    public final class SubscriptionBuilder<T> {
+        private final Class<T> eventType;
+        private int priority;
+        private Executor executor;
+        private boolean sticky;
+        private Node node;
+
+        private SubscriptionBuilder(Class<T> eventType) {
+            this.eventType = eventType;
+        }
+
+        /**
+         * Higher priorities are dispatched first; the default is 0. For asynchronous subscribers this orders
+         * enqueueing only.
+         */
+        public SubscriptionBuilder<T> priority(int priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Deliver on {@code executor} through a bounded per-subscriber queue instead of on the publishing thread.
+         */
+        public SubscriptionBuilder<T> executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor");
+            return this;
+        }
+
+        /**
+         * Receive the current sticky events matching the type right after subscribing.
+         */
+        public SubscriptionBuilder<T> sticky() {
+            this.sticky = true;
+            return this;
+        }
+
+        /**
+         * End the subscription when {@code node} is removed from its scene; a node that has not been added to one
+         * yet keeps it until it is added and later removed.
+         */
+        public SubscriptionBuilder<T> boundTo(Node node) {
+            this.node = Objects.requireNonNull(node, "node");
+            return this;
+        }
+
+        public AutoCloseable subscribe(Consumer<T> handler) {
+            Objects.requireNonNull(handler, "handler");
+            if (executor == null) {
+                return add(new Subscriber(eventType, priority, sequence.incrementAndGet()) {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    void deliver(Object event) {
+                        if (active) ((Consumer<Object>) handler).accept(event);
+                    }
+                });
+            }
+            return subscribeBatched(batch -> {
+                for (T event : batch) {
+                    try {
+                        handler.accept(event);
+                    } catch (RuntimeException ex) {
+                        Thread thread = Thread.currentThread();
+                        thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+                    }
+                }
+            });
+        }
+
+        /**
+         * Batched delivery; requires an {@link #executor(Executor)}.
+         */
+        public AutoCloseable subscribeBatched(Consumer<? super List<T>> handler) {
+            Objects.requireNonNull(handler, "handler");
+            if (executor == null) throw new IllegalStateException("Batched delivery needs an executor");
+            return add(new AsyncSubscriber<>(eventType, priority, sequence.incrementAndGet(), executor, queueCapacity,
+                    handler));
+        }
+
+        /**
+         * Owner-bound delivery, see {@link EventBus#subscribeWeakly(Class, Object, BiConsumer)}; honours the
+         * executor and other options set on this builder.
+         */
+        @SuppressWarnings("unchecked")
+        public <O> AutoCloseable subscribeWeakly(O owner, BiConsumer<? super O, ? super T> handler) {
+            Objects.requireNonNull(owner, "owner");
+            Objects.requireNonNull(handler, "handler");
+            OwnerReference reference = new OwnerReference(owner, collectedOwners);
+            Subscriber subscriber = (Subscriber) subscribe(event -> {
+                Object current = reference.get();
+                if (current == null) reference.subscriber.close();
+                else handler.accept((O) current, event);
+            });
+            reference.subscriber = subscriber;
+            // the owner must not be collected before the reference knows which subscription to end
+            Reference.reachabilityFence(owner);
+            return subscriber;
+        }
+
+        private AutoCloseable add(Subscriber subscriber) {
+            register(subscriber);
+            if (node != null) bindToScene(subscriber, node);
+            if (sticky) replaySticky(eventType, subscriber);
+            return subscriber;
+        }
+    }
+
+    /**
+     * Closes {@code subscriber} when the node's scene goes from set to null. The listener is attached on the FX
+     * thread and holds the node only weakly, so an abandoned node never shown is not kept by the bus.
+     */
+    private static void bindToScene(Subscriber subscriber, Node node) {
+        WeakReference<Node> nodeReference = new WeakReference<>(node);
+        ChangeListener<Scene> listener = new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Scene> observable, Scene oldScene, Scene newScene) {
+                if (newScene != null) return;
+                observable.removeListener(this);
+                subscriber.close();
+            }
+        };
+        subscriber.onClose = () -> FxExecutors.fx().execute(() -> {
+            Node target = nodeReference.get();
+            if (target != null) target.sceneProperty().removeListener(listener);
+        });
+        FxExecutors.fx().execute(() -> {
+            if (subscriber.active) node.sceneProperty().addListener(listener);
+        });
+    }
+
+    /**
+     * Dispatch order for one event class, changed in place under the subscription lock and read without locking.
+     * Removal clears the subscriber's slot; a subscriber that sorts last (the usual case, as sequences only grow) is
+     * appended; anything else, and tables that have become at least half empty, is copied into a fresh array.
+     * <p>
+     * Readers walk whatever array {@code slots} holds, skipping empty slots. Every write that adds a subscriber is
+     * followed by a write of {@code slots}, so a publish that starts after a subscribe returned sees it. A cleared
+     * slot that a reader still sees belongs to a subscriber that is already inactive.
+     */
+    private static final class Table {
+        private static final int MIN_CAPACITY = 4;
+
+        volatile Subscriber[] slots;
+        private int used;
+        private int live;
+
+        private Table(List<Subscriber> sorted) {
+            slots = fill(sorted, null, new Subscriber[Math.max(MIN_CAPACITY, sorted.size() * 2)]);
+        }
+
+        void insert(Subscriber subscriber) {
+            Subscriber[] current = slots;
+            if ((used > 0 && DISPATCH_ORDER.compare(current[used - 1], subscriber) > 0)
+                    || (used == current.length && live <= current.length / 2)) {
+                rebuild(subscriber);
+                return;
+            }
+            if (used == current.length) current = Arrays.copyOf(current, current.length * 2);
+            current[used] = subscriber;
+            subscriber.joined(this, used);
+            used++;
+            live++;
+            slots = current;
+        }
+
+        void remove(int slot) {
+            Subscriber[] current = slots;
+            current[slot] = null;
+            live--;
+            if (slot == used - 1) {
+                while (used > 0 && current[used - 1] == null) used--;
+            }
+            if (used > MIN_CAPACITY && live < used / 2) rebuild(null);
+        }
+
+        private void rebuild(Subscriber extra) {
+            List<Subscriber> sorted = new ArrayList<>(live + 1);
+            Subscriber[] current = slots;
+            for (int i = 0; i < used; i++) {
+                if (current[i] != null) sorted.add(current[i]);
+            }
+            slots = fill(sorted, extra, new Subscriber[Math.max(MIN_CAPACITY, (live + 1) * 2)]);
+        }
+
+        /**
+         * Places {@code sorted}, plus {@code extra} at its sorted position, into {@code target} before it is
+         * published.
+         */
+        private Subscriber[] fill(List<Subscriber> sorted, Subscriber extra, Subscriber[] target) {
+            int count = 0;
+            for (Subscriber subscriber : sorted) {
+                if (extra != null && DISPATCH_ORDER.compare(extra, subscriber) < 0) {
+                    target[count] = extra;
+                    extra.joined(this, count++);
+                    extra = null;
+                }
+                target[count] = subscriber;
+                subscriber.joined(this, count++);
+            }
+            if (extra != null) {
+                target[count] = extra;
+                extra.joined(this, count++);
+            }
+            used = count;
+            live = count;
+            return target;
+        }
+    }
+
+    private static final class OwnerReference extends WeakReference<Object> {
+        volatile Subscriber subscriber;
+
+        private OwnerReference(Object owner, ReferenceQueue<Object> queue) {
+            super(owner, queue);
+        }
+    }
+
+    /**
+     * One subscription; also the {@link AutoCloseable} handed back to the caller.
+     */
+    private abstract class Subscriber implements AutoCloseable {
+        final Class<?> eventType;
+        final int priority;
+        final long sequence;
+        volatile boolean active = true;
+        volatile String site;
+        volatile Runnable onClose;
+        /** Tables holding this subscriber and its slot in each; guarded by the subscription lock. */
+        private Table[] tables = new Table[1];
+        private int[] tableSlots = new int[1];
+        private int tableCount;
+
+        Subscriber(Class<?> eventType, int priority, long sequence) {
+            this.eventType = eventType;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        abstract void deliver(Object event);
+
+        void joined(Table table, int slot) {
+            for (int i = 0; i < tableCount; i++) {
+                if (tables[i] == table) {
+                    tableSlots[i] = slot;
+                    return;
+                }
+            }
+            if (tableCount == tables.length) {
+                tables = Arrays.copyOf(tables, tableCount * 2);
+                tableSlots = Arrays.copyOf(tableSlots, tableCount * 2);
+            }
+            tables[tableCount] = table;
+            tableSlots[tableCount++] = slot;
+        }
+
+        void leaveTables() {
+            // read each slot just before removing: a removal may rebuild a table and move this subscriber's
+            // neighbours, never this subscriber itself, since its slot is cleared first
+            for (int i = 0; i < tableCount; i++) {
+                tables[i].remove(tableSlots[i]);
+                tables[i] = null;
+            }
+            tableCount = 0;
+        }
+
+        @Override
+        public void close() {
+            if (deactivate()) unregister(this);
+        }
+
+        /**
+         * Stops delivery and runs the close hook, once.
+         */
+        boolean deactivate() {
+            synchronized (this) {
+                if (!active) return false;
+                active = false;
+            }
+            Runnable hook = onClose;
+            if (hook != null) hook.run();
+            return true;
+        }
+    }
+
+    /**
+     * Queues events in an {@link FxBatcher}, whose single pending drain keeps delivery ordered on any executor.
+     */
+    private final class AsyncSubscriber<T> extends Subscriber {
+        private final FxBatcher<T> batcher;
+
+        private AsyncSubscriber(Class<?> eventType,
+                                int priority,
+                                long sequence,
+                                Executor executor,
+                                int capacity,
+                                Consumer<? super List<T>> handler) {
+            super(eventType, priority, sequence);
+            this.batcher = new FxBatcher<>(executor, capacity, batch -> {
+                if (active) handler.accept(batch);
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void deliver(Object event) {
+            if (!active) return;
+            if (!batcher.offer((T) event)) dropped.increment();
+        }
     }
 }
@@ -0,0 +1,111 @@
+package com.zephyrstack.fxlib.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces items produced on background threads into batches delivered on a target executor, by default the
+ * FX Application Thread. However fast producers offer items, at most one drain task is pending on the executor,
+ * so a burst of events costs one {@code Platform.runLater} instead of one per event.
+ * <p>
+ * The batcher holds at most {@code capacity} undelivered items: {@link #offer(Object)} rejects items beyond that
+ * and {@link #put(Object)} blocks the producer until the consumer catches up, which propagates backpressure to
+ * whatever feeds it.
+ */
+public final class FxBatcher<T> {
+    private final Executor executor;
+    private final Consumer<? super List<T>> consumer;
+    private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Semaphore space;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public FxBatcher(Consumer<? super List<T>> consumer) {
+        this(FxExecutors.fx(), Integer.MAX_VALUE, consumer);
+    }
+
+    public FxBatcher(Executor executor, int capacity, Consumer<? super List<T>> consumer) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.consumer = Objects.requireNonNull(consumer, "consumer");
+        this.space = new Semaphore(capacity);
+    }
+
+    /**
+     * Enqueues the item unless the batcher is full.
+     *
+     * @return {@code false} when {@code capacity} items are already waiting
+     */
+    public boolean offer(T item) {
+        Objects.requireNonNull(item, "item");
+        if (!space.tryAcquire()) return false;
+        enqueue(item);
+        return true;
+    }
+
+    /**
+     * Enqueues the item, waiting for the consumer to make room if necessary.
+     */
+    public void put(T item) throws InterruptedException {
+        Objects.requireNonNull(item, "item");
+        space.acquire();
+        enqueue(item);
+    }
+
+    /**
+     * Items offered but not yet handed to the consumer.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    public Stats stats() {
+        return new Stats(delivered.sum(), batches.sum(), pending.get());
+    }
+
+    private void enqueue(T item) {
+        queue.add(item);
+        pending.incrementAndGet();
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException ex) {
+                scheduled.set(false);
+                throw ex;
+            }
+        }
+    }
+
+    private void drain() {
+        List<T> batch = new ArrayList<>(Math.max(1, pending.get()));
+        try {
+            T item;
+            while ((item = queue.poll()) != null) batch.add(item);
+            if (batch.isEmpty()) return;
+            pending.addAndGet(-batch.size());
+            space.release(batch.size());
+            delivered.add(batch.size());
+            batches.increment();
+            consumer.accept(batch);
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Snapshot of delivery counters; {@code delivered / batches} is the average coalescing factor.
+     */
+    public record Stats(long delivered, long batches, int pending) {
+    }
+}
@@ -10,6 +10,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Shared executors for JavaFX applications:
  * - {@link #fx()} ensures work runs on the FX Application Thread.
  * - {@link #scheduler()} exposes a daemon {@link ScheduledExecutorService} for repeated/delayed tasks.
+ * - {@link #background()} is the executor for background work, the application context's once it is initialized.
  */
 public final class FxExecutors {
     private static final Executor FX = command -> {
@@ -23,6 +24,8 @@ public final class FxExecutors {
 
     private static final ScheduledExecutorService SCHEDULER;
 
+    private static volatile Executor background = ForkJoinPool.commonPool();
+
     static {
         AtomicInteger counter = new AtomicInteger();
         ThreadFactory factory = runnable -> {
@@ -56,6 +59,20 @@ public final class FxExecutors {
         return SCHEDULER;
     }
 
+    /**
+     * Returns the executor for background work; the common fork-join pool unless one has been installed.
+     */
+    public static Executor background() {
+        return background;
+    }
+
+    /**
+     * Installs the executor returned by {@link #background()}; {@code null} restores the common fork-join pool.
+     */
+    public static void setBackground(Executor executor) {
+        background = executor == null ? ForkJoinPool.commonPool() : executor;
+    }
+
     /**
      * Optional: allow graceful shutdown if the application wants to tear down pools explicitly.
      */
@@ -16,15 +16,25 @@ import java.util.function.Supplier;
 public final class FxFutures {
     private FxFutures() {}
 
+    /**
+     * Runs {@code work} on {@link FxExecutors#background()}.
+     */
     public static <T> CompletableFuture<T> supply(Supplier<T> work) {
-        Objects.requireNonNull(work, "work");
-        return CompletableFuture.supplyAsync(work);
+        return supply(work, FxExecutors.background());
     }
 
+    /**
+     * Runs {@code work} on {@code executor}. A {@link RejectedExecutionException} from a saturated or shut down
+     * executor fails the returned future instead of being thrown.
+     */
     public static <T> CompletableFuture<T> supply(Supplier<T> work, Executor executor) {
         Objects.requireNonNull(work, "work");
         Objects.requireNonNull(executor, "executor");
-        return CompletableFuture.supplyAsync(work, executor);
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
     }
 
     /**
@@ -71,7 +81,22 @@ public final class FxFutures {
         }, millis, TimeUnit.MILLISECONDS);
 
         future.whenComplete((result, throwable) -> scheduled.cancel(false));
-        return future.applyToEither(timeoutFuture, Function.identity());
+        return propagateCancellation(future.applyToEither(timeoutFuture, Function.identity()), future);
+    }
+
+    /**
+     * Cancel {@code upstream} when {@code downstream} is cancelled. Dependent stages do not do this on their own, so
+     * dropping a derived future would otherwise leave the work behind it running. Returns {@code downstream}.
+     */
+    public static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<T> downstream, Future<?> upstream) {
+        Objects.requireNonNull(downstream, "downstream");
+        Objects.requireNonNull(upstream, "upstream");
+        if (downstream != upstream) {
+            downstream.whenComplete((result, throwable) -> {
+                if (downstream.isCancelled()) upstream.cancel(true);
+            });
+        }
+        return downstream;
     }
 
     /**
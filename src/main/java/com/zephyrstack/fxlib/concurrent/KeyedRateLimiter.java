@@ -0,0 +1,272 @@
+package com.zephyrstack.fxlib.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Independent token buckets per key (API key, user, endpoint…), each holding up to {@code maxPermits} tokens that
+ * refill continuously over {@code window}, like {@link RateLimiter}.
+ * <p>
+ * Buckets live in striped open-addressing tables of parallel arrays, one key reference and one {@code long} per
+ * bucket, so a hundred thousand keys cost a few megabytes and no per-key objects. A bucket is stored only while it
+ * is below capacity: a full bucket behaves exactly like an absent one, so such entries are dropped whenever a
+ * stripe would otherwise grow, and by {@link #evictIdle()}.
+ *
+ * @param <K> key type; must have stable {@code equals}/{@code hashCode}
+ */
+public final class KeyedRateLimiter<K> {
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final int maxPermits;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int stripeBits;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Aggregate counters over all keys.
+     */
+    public record Stats(long acquired, long rejected, int trackedKeys, long evicted) {
+        public double rejectionRate() {
+            long total = acquired + rejected;
+            return total == 0 ? 0 : (double) rejected / total;
+        }
+    }
+
+    public KeyedRateLimiter(int maxPermits, Duration window) {
+        this(maxPermits, window, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes number of independently locked tables, rounded up to a power of two
+     */
+    public KeyedRateLimiter(int maxPermits, Duration window, int stripes) {
+        if (maxPermits <= 0) throw new IllegalArgumentException("maxPermits must be > 0");
+        Objects.requireNonNull(window, "window");
+        long nanos = window.toNanos();
+        if (nanos <= 0) throw new IllegalArgumentException("window must be > 0");
+        if (stripes <= 0 || stripes > 1 << 16) throw new IllegalArgumentException("stripes must be in 1..65536");
+        this.maxPermits = maxPermits;
+        this.intervalNanos = Math.max(1, nanos / maxPermits);
+        this.capacityNanos = intervalNanos * maxPermits;
+        int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) this.stripes[i] = new Stripe();
+        this.stripeMask = count - 1;
+        this.stripeBits = Integer.numberOfTrailingZeros(count);
+    }
+
+    public boolean tryAcquire(K key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Takes {@code permits} tokens from {@code key}'s bucket if they are all available now.
+     */
+    public boolean tryAcquire(K key, int permits) {
+        boolean ok = take(key, checkPermits(permits)) == 0;
+        (ok ? acquired : rejected).increment();
+        return ok;
+    }
+
+    /**
+     * Completes once a permit for {@code key} is available, waiting with delayed tasks on
+     * {@link FxExecutors#scheduler()}. Only the final, successful attempt is counted.
+     */
+    public CompletableFuture<Void> acquireAsync(K key) {
+        return acquireAsync(key, 1);
+    }
+
+    public CompletableFuture<Void> acquireAsync(K key, int permits) {
+        Objects.requireNonNull(key, "key");
+        checkPermits(permits);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        attempt(key, permits, result);
+        return result;
+    }
+
+    /**
+     * Tokens {@code key} could take right now.
+     */
+    public int availablePermits(K key) {
+        Objects.requireNonNull(key, "key");
+        int hash = spread(key.hashCode());
+        Stripe stripe = stripes[hash & stripeMask];
+        long fullAt;
+        synchronized (stripe) {
+            int slot = stripe.find(key, hash >>> stripeBits);
+            if (slot < 0) return maxPermits;
+            fullAt = stripe.fullAt[slot];
+        }
+        long debt = Math.max(0, fullAt - System.nanoTime());
+        return (int) Math.max(0, (capacityNanos - debt) / intervalNanos);
+    }
+
+    /**
+     * Drops every bucket that has refilled completely. Returns the number of buckets removed.
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                removed += stripe.rebuild(now, stripeBits);
+            }
+        }
+        evicted.add(removed);
+        return removed;
+    }
+
+    /**
+     * Number of buckets currently stored, i.e. keys that are not at full capacity or have not been evicted yet.
+     */
+    public int trackedKeys() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.size;
+            }
+        }
+        return total;
+    }
+
+    public Stats stats() {
+        return new Stats(acquired.sum(), rejected.sum(), trackedKeys(), evicted.sum());
+    }
+
+    private void attempt(K key, int permits, CompletableFuture<Void> result) {
+        if (result.isDone()) return;
+        long wait = take(key, permits);
+        if (wait > 0) {
+            try {
+                FxExecutors.scheduler().schedule(() -> attempt(key, permits, result), wait, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException ex) {
+                result.completeExceptionally(ex);
+            }
+        } else if (result.complete(null)) {
+            acquired.increment();
+        } else {
+            refund(key, permits);
+        }
+    }
+
+    /**
+     * Returns 0 when the tokens were taken, otherwise the nanos until they will be available.
+     */
+    private long take(K key, int permits) {
+        Objects.requireNonNull(key, "key");
+        long cost = intervalNanos * permits;
+        int hash = spread(key.hashCode());
+        Stripe stripe = stripes[hash & stripeMask];
+        long now = System.nanoTime();
+        synchronized (stripe) {
+            int home = hash >>> stripeBits;
+            int slot = stripe.find(key, home);
+            if (slot < 0) {
+                // an absent bucket is full, and permits never exceed its capacity
+                int removed = stripe.insert(key, home, now + cost, now, stripeBits);
+                if (removed > 0) evicted.add(removed);
+                return 0;
+            }
+            long next = Math.max(stripe.fullAt[slot], now) + cost;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) return excess;
+            stripe.fullAt[slot] = next;
+            return 0;
+        }
+    }
+
+    private void refund(K key, int permits) {
+        int hash = spread(key.hashCode());
+        Stripe stripe = stripes[hash & stripeMask];
+        synchronized (stripe) {
+            int slot = stripe.find(key, hash >>> stripeBits);
+            if (slot >= 0) stripe.fullAt[slot] -= intervalNanos * permits;
+        }
+    }
+
+    private int checkPermits(int permits) {
+        if (permits <= 0 || permits > maxPermits) {
+            throw new IllegalArgumentException("permits must be between 1 and " + maxPermits + ": " + permits);
+        }
+        return permits;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Linear-probing table of keys and the time each bucket is full again. Guarded by its own monitor.
+     */
+    private static final class Stripe {
+        private Object[] keys = new Object[INITIAL_STRIPE_CAPACITY];
+        private long[] fullAt = new long[INITIAL_STRIPE_CAPACITY];
+        private int size;
+
+        private int find(Object key, int home) {
+            int mask = keys.length - 1;
+            for (int i = home & mask; ; i = (i + 1) & mask) {
+                Object candidate = keys[i];
+                if (candidate == null) return -1;
+                if (candidate.equals(key)) return i;
+            }
+        }
+
+        /**
+         * Adds a bucket for an absent key. Returns the number of full buckets dropped to make room.
+         */
+        private int insert(Object key, int home, long value, long now, int stripeBits) {
+            int removed = 0;
+            if ((size + 1) * 4 > keys.length * 3) removed = rebuild(now, stripeBits);
+            int mask = keys.length - 1;
+            int i = home & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = key;
+            fullAt[i] = value;
+            size++;
+            return removed;
+        }
+
+        /**
+         * Drops full buckets and rehashes the rest into tables sized for at most half occupancy, growing or
+         * shrinking as needed. Returns the number dropped.
+         */
+        private int rebuild(long now, int stripeBits) {
+            int live = 0;
+            for (int j = 0; j < keys.length; j++) {
+                if (keys[j] != null && fullAt[j] - now > 0) live++;
+            }
+            int capacity = INITIAL_STRIPE_CAPACITY;
+            while (capacity < (live + 1) * 2) capacity <<= 1;
+            if (live == size && capacity == keys.length) return 0;
+            Object[] oldKeys = keys;
+            long[] oldFullAt = fullAt;
+            keys = new Object[capacity];
+            fullAt = new long[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                Object key = oldKeys[j];
+                if (key == null || oldFullAt[j] - now <= 0) continue;
+                int i = (spread(key.hashCode()) >>> stripeBits) & mask;
+                while (keys[i] != null) i = (i + 1) & mask;
+                keys[i] = key;
+                fullAt[i] = oldFullAt[j];
+            }
+            int removed = size - live;
+            size = live;
+            return removed;
+        }
+    }
+}
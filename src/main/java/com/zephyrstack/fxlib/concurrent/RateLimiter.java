@@ -2,61 +2,186 @@ package com.zephyrstack.fxlib.concurrent;
 
 import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Token-bucket style rate limiter. Allows up to {@code permits} within the configured window.
+ * Lock-free token bucket holding up to {@code maxPermits} tokens that refill continuously, one every
+ * {@code window / maxPermits}, instead of all at once at a window boundary.
+ * <p>
+ * The whole bucket is a single {@code long}: the time at which it will be full again (the theoretical arrival
+ * time of the generic cell rate algorithm). Taking {@code n} tokens pushes that time forward by {@code n}
+ * refill intervals and is allowed while it stays within one window of now, so every operation is a single CAS.
+ * <p>
+ * In fair mode waiters reserve their tokens in arrival order and {@link #tryAcquire()} cannot jump ahead of
+ * them; otherwise waiters re-check when enough tokens should have refilled and may lose to a faster caller.
  */
 public final class RateLimiter {
     private final int maxPermits;
-    private final long windowMillis;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final boolean fair;
 
-    private int availablePermits;
-    private long windowResetAt;
+    /**
+     * Time, relative to {@link System#nanoTime()}, at which the bucket is full again.
+     */
+    private final AtomicLong fullAt;
 
     public RateLimiter(int maxPermits, Duration window) {
+        this(maxPermits, window, false);
+    }
+
+    public RateLimiter(int maxPermits, Duration window, boolean fair) {
         if (maxPermits <= 0) throw new IllegalArgumentException("maxPermits must be > 0");
         Objects.requireNonNull(window, "window");
-        long millis = window.toMillis();
-        if (millis <= 0) throw new IllegalArgumentException("window must be > 0");
+        long nanos = window.toNanos();
+        if (nanos <= 0) throw new IllegalArgumentException("window must be > 0");
         this.maxPermits = maxPermits;
-        this.windowMillis = millis;
-        this.availablePermits = maxPermits;
-        this.windowResetAt = System.currentTimeMillis() + windowMillis;
+        this.intervalNanos = Math.max(1, nanos / maxPermits);
+        this.capacityNanos = intervalNanos * maxPermits;
+        this.fair = fair;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean isFair() {
+        return fair;
+    }
+
+    /**
+     * Tokens that could be taken right now.
+     */
+    public int availablePermits() {
+        long now = System.nanoTime();
+        long debt = Math.max(0, fullAt.get() - now);
+        return (int) Math.max(0, (capacityNanos - debt) / intervalNanos);
     }
 
     /**
      * Returns true if a permit is acquired immediately, false otherwise.
      */
-    public synchronized boolean tryAcquire() {
-        refillIfNeeded();
-        if (availablePermits > 0) {
-            availablePermits--;
-            return true;
-        }
-        return false;
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * Takes {@code permits} tokens if all of them are available now.
+     */
+    public boolean tryAcquire(int permits) {
+        return take(checkPermits(permits)) == 0;
     }
 
     /**
      * Blocks until a permit is available.
      */
-    public synchronized void acquire() throws InterruptedException {
-        while (!tryAcquire()) {
-            long waitFor = windowResetAt - System.currentTimeMillis();
-            if (waitFor > 0) {
-                wait(waitFor);
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    public void acquire(int permits) throws InterruptedException {
+        checkPermits(permits);
+        if (fair) {
+            park(reserve(permits));
+            return;
+        }
+        long wait;
+        while ((wait = take(permits)) > 0) park(wait);
+    }
+
+    /**
+     * Completes once a permit is available. Waiting is a delayed task on {@link FxExecutors#scheduler()}, so this is
+     * safe to call from the FX thread and from future pipelines.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        return acquireAsync(1);
+    }
+
+    /**
+     * Completes once {@code permits} tokens have been taken. Cancelling a non-fair wait takes nothing; a fair wait
+     * has already reserved its tokens and does not give them back.
+     */
+    public CompletableFuture<Void> acquireAsync(int permits) {
+        checkPermits(permits);
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (fair) {
+            long wait = reserve(permits);
+            if (wait == 0) {
+                result.complete(null);
             } else {
-                // just loop; refill will happen on next iteration
-                Thread.yield();
+                schedule(() -> result.complete(null), wait, result);
             }
+        } else {
+            attempt(permits, result);
+        }
+        return result;
+    }
+
+    private void attempt(int permits, CompletableFuture<Void> result) {
+        if (result.isDone()) return;
+        long wait = take(permits);
+        if (wait > 0) {
+            schedule(() -> attempt(permits, result), wait, result);
+        } else if (!result.complete(null)) {
+            // cancelled while we were taking; hand the tokens back
+            fullAt.addAndGet(-intervalNanos * permits);
+        }
+    }
+
+    /**
+     * Takes the tokens if they are all available. Returns 0 on success, otherwise the nanos until they will be.
+     * In fair mode this never succeeds while reservations are outstanding, because they have already pushed the
+     * bucket into debt.
+     */
+    private long take(int permits) {
+        long cost = intervalNanos * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            long excess = next - now - capacityNanos;
+            if (excess > 0) return excess;
+            if (fullAt.compareAndSet(current, next)) return 0;
+        }
+    }
+
+    /**
+     * Takes the tokens unconditionally, going into debt if necessary, and returns how long the caller must wait
+     * before using them. Later callers queue behind the debt, which is what makes fair mode FIFO.
+     */
+    private long reserve(int permits) {
+        long cost = intervalNanos * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + cost;
+            if (fullAt.compareAndSet(current, next)) return Math.max(0, next - now - capacityNanos);
+        }
+    }
+
+    private int checkPermits(int permits) {
+        if (permits <= 0 || permits > maxPermits) {
+            throw new IllegalArgumentException("permits must be between 1 and " + maxPermits + ": " + permits);
+        }
+        return permits;
+    }
+
+    private static void park(long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) throw new InterruptedException();
+            remaining = deadline - System.nanoTime();
         }
     }
 
-    private void refillIfNeeded() {
-        long now = System.currentTimeMillis();
-        if (now >= windowResetAt) {
-            availablePermits = maxPermits;
-            windowResetAt = now + windowMillis;
-            notifyAll();
+    private static void schedule(Runnable task, long delayNanos, CompletableFuture<?> owner) {
+        try {
+            FxExecutors.scheduler().schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            owner.completeExceptionally(ex);
         }
     }
 }
@@ -3,16 +3,45 @@ package com.zephyrstack.fxlib.concurrent;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Simple retry helper with exponential backoff. Useful for transient network calls or IO that may
  * succeed after short delays.
+ * <p>
+ * The static {@code withBackoff} methods retry synchronously on the calling thread. Instances built with
+ * {@link #newBuilder()} retry {@link CompletionStage}s instead: re-attempts are delayed tasks on
+ * {@link FxExecutors#scheduler()} with full-jitter backoff, so no thread waits between attempts.
  */
 public final class Retry {
     private static final long MAX_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(30);
 
-    private Retry() {}
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final long maxElapsedNanos;
+    private final Predicate<Throwable> retryOn;
+
+    private Retry(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialDelayMillis = builder.initialDelay.toMillis();
+        this.maxDelayMillis = builder.maxDelay.toMillis();
+        this.maxElapsedNanos = builder.maxElapsed == null ? Long.MAX_VALUE : builder.maxElapsed.toNanos();
+        this.retryOn = builder.retryOn;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
 
     public static <T> T withBackoff(Callable<T> call,
                                     int maxAttempts,
@@ -61,6 +90,96 @@ public final class Retry {
         }
     }
 
+    /**
+     * Asynchronous counterpart of {@link #withBackoff(Callable, int, Duration)}: retries every failure up to
+     * {@code maxAttempts} times with full-jitter backoff starting at {@code initialDelay}.
+     */
+    public static <T> CompletableFuture<T> withBackoffAsync(Supplier<? extends CompletionStage<T>> call,
+                                                            int maxAttempts,
+                                                            Duration initialDelay) {
+        return newBuilder().maxAttempts(maxAttempts).initialDelay(initialDelay).build().executeAsync(call);
+    }
+
+    /**
+     * Runs {@code call} and re-runs it while it fails with a retryable exception and attempts and time budget
+     * remain. The future fails with the last failure once retries are exhausted. Cancelling it cancels the
+     * attempt in flight and stops further ones.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<? extends CompletionStage<T>> call) {
+        return executeAsync(call, result -> false);
+    }
+
+    /**
+     * Like {@link #executeAsync(Supplier)}, additionally retrying successful results matched by
+     * {@code retryOnResult}; when retries run out the last such result is returned.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<? extends CompletionStage<T>> call,
+                                                 Predicate<? super T> retryOnResult) {
+        Objects.requireNonNull(call, "call");
+        Objects.requireNonNull(retryOnResult, "retryOnResult");
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(call, retryOnResult, 1, System.nanoTime(), result);
+        return result;
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    private <T> void attempt(Supplier<? extends CompletionStage<T>> call,
+                             Predicate<? super T> retryOnResult,
+                             int attempt,
+                             long startedAt,
+                             CompletableFuture<T> result) {
+        if (result.isDone()) return;
+        CompletableFuture<T> stage;
+        try {
+            stage = Objects.requireNonNull(call.get(), "call returned null stage").toCompletableFuture();
+        } catch (RuntimeException ex) {
+            stage = CompletableFuture.failedFuture(ex);
+        }
+        FxFutures.propagateCancellation(result, stage);
+        stage.whenComplete((value, throwable) -> {
+            if (result.isDone()) return;
+            Throwable failure = throwable == null ? null : unwrap(throwable);
+            boolean retry = failure == null
+                    ? retryOnResult.test(value)
+                    : !(failure instanceof CancellationException) && retryOn.test(failure);
+            long delay = retry ? backoffMillis(attempt) : 0;
+            if (retry && attempt < maxAttempts
+                    && System.nanoTime() - startedAt + TimeUnit.MILLISECONDS.toNanos(delay) <= maxElapsedNanos) {
+                try {
+                    FxExecutors.scheduler().schedule(
+                            () -> attempt(call, retryOnResult, attempt + 1, startedAt, result),
+                            delay, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException ignored) {
+                    // scheduler is gone; report the outcome we have
+                }
+            }
+            if (failure != null) result.completeExceptionally(failure);
+            else result.complete(value);
+        });
+    }
+
+    /**
+     * A random delay between zero and {@code min(maxDelay, initialDelay * 2^(attempt-1))}.
+     */
+    private long backoffMillis(int attempt) {
+        if (initialDelayMillis == 0) return 0;
+        long exponential = attempt >= 31 ? maxDelayMillis : Math.min(maxDelayMillis, initialDelayMillis << (attempt - 1));
+        return ThreadLocalRandom.current().nextLong(Math.max(0, exponential) + 1);
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
     private static void sleep(long delayMs) throws InterruptedException {
         if (delayMs <= 0) return;
         Thread.sleep(delayMs);
@@ -71,4 +190,67 @@ public final class Retry {
         long doubled = current * 2;
         return Math.min(doubled, MAX_BACKOFF_MILLIS);
     }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private Duration initialDelay = Duration.ofMillis(200);
+        private Duration maxDelay = Duration.ofMillis(MAX_BACKOFF_MILLIS);
+        private Duration maxElapsed;
+        private Predicate<Throwable> retryOn = failure -> true;
+
+        private Builder() {
+        }
+
+        /**
+         * Total number of attempts including the first one.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be >= 1");
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialDelay(Duration initialDelay) {
+            Objects.requireNonNull(initialDelay, "initialDelay");
+            if (initialDelay.isNegative()) throw new IllegalArgumentException("initialDelay must be >= 0");
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        public Builder maxDelay(Duration maxDelay) {
+            Objects.requireNonNull(maxDelay, "maxDelay");
+            if (maxDelay.isNegative() || maxDelay.isZero()) throw new IllegalArgumentException("maxDelay must be > 0");
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Time budget for all attempts together; no retry is scheduled that would start after it runs out.
+         */
+        public Builder maxElapsed(Duration maxElapsed) {
+            Objects.requireNonNull(maxElapsed, "maxElapsed");
+            if (maxElapsed.isNegative() || maxElapsed.isZero()) {
+                throw new IllegalArgumentException("maxElapsed must be > 0");
+            }
+            this.maxElapsed = maxElapsed;
+            return this;
+        }
+
+        /**
+         * Which failures are retried; all of them by default. Receives the unwrapped cause.
+         */
+        public Builder retryOn(Predicate<Throwable> predicate) {
+            this.retryOn = Objects.requireNonNull(predicate, "predicate");
+            return this;
+        }
+
+        public Builder retryOn(Class<? extends Throwable> type) {
+            Objects.requireNonNull(type, "type");
+            return retryOn(type::isInstance);
+        }
+
+        public Retry build() {
+            return new Retry(this);
+        }
+    }
 }
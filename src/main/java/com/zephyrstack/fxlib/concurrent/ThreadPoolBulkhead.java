@@ -0,0 +1,171 @@
+package com.zephyrstack.fxlib.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bulkhead backed by its own small thread pool, for blocking calls to one dependency: at most
+ * {@code maxThreads} run at once, at most {@code queueCapacity} more wait, and further submissions fail with
+ * {@link BulkheadFullException} instead of taking threads from the shared background executor.
+ * <p>
+ * Threads are daemons, named after the bulkhead, and time out after {@code keepAlive} when idle.
+ */
+public final class ThreadPoolBulkhead implements AutoCloseable {
+    private final String name;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder rejected = new LongAdder();
+    private final Executor executor = this::execute;
+
+    /**
+     * Current occupancy and lifetime counters.
+     */
+    public record Metrics(int activeThreads,
+                          int poolSize,
+                          int queuedTasks,
+                          int remainingQueueCapacity,
+                          long completedTasks,
+                          long rejectedTasks) {
+    }
+
+    private ThreadPoolBulkhead(Builder builder) {
+        this.name = builder.name;
+        this.queueCapacity = builder.queueCapacity;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-bulkhead-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        BlockingQueue<Runnable> queue = queueCapacity == 0
+                ? new SynchronousQueue<>()
+                : new ArrayBlockingQueue<>(queueCapacity);
+        this.pool = new ThreadPoolExecutor(builder.maxThreads, builder.maxThreads,
+                builder.keepAlive.toNanos(), TimeUnit.NANOSECONDS, queue, factory, new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static Builder newBuilder(String name) {
+        return new Builder(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Runs {@code task} on the bulkhead's pool. The future fails with {@link BulkheadFullException} when the pool
+     * and its queue are full; cancelling it removes a queued task or interrupts a running one.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        Objects.requireNonNull(task, "task");
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> submitted;
+        try {
+            submitted = pool.submit(() -> {
+                if (result.isDone()) return;
+                try {
+                    result.complete(task.call());
+                } catch (Throwable ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(reject(ex));
+        }
+        FxFutures.propagateCancellation(result, submitted);
+        result.whenComplete((value, throwable) -> {
+            // a cancelled task would otherwise keep its queue slot until a thread reaches it
+            if (result.isCancelled() && submitted instanceof Runnable queued) pool.remove(queued);
+        });
+        return result;
+    }
+
+    /**
+     * Executor view for APIs such as {@link CompletableFuture#supplyAsync(java.util.function.Supplier, Executor)};
+     * {@code execute} throws {@link BulkheadFullException} when the bulkhead is full.
+     */
+    public Executor executor() {
+        return executor;
+    }
+
+    public Metrics metrics() {
+        BlockingQueue<Runnable> queue = pool.getQueue();
+        return new Metrics(pool.getActiveCount(), pool.getPoolSize(), queue.size(), queue.remainingCapacity(),
+                pool.getCompletedTaskCount(), rejected.sum());
+    }
+
+    /**
+     * Stops accepting work; queued and running tasks still finish.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private void execute(Runnable command) {
+        Objects.requireNonNull(command, "command");
+        try {
+            pool.execute(command);
+        } catch (RejectedExecutionException ex) {
+            throw reject(ex);
+        }
+    }
+
+    private RejectedExecutionException reject(RejectedExecutionException cause) {
+        if (pool.isShutdown()) return cause;
+        rejected.increment();
+        return new BulkheadFullException("Bulkhead '" + name + "' is full (" + pool.getMaximumPoolSize()
+                + " threads, " + queueCapacity + " queued)");
+    }
+
+    public static final class Builder {
+        private final String name;
+        private int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        private int queueCapacity = 16;
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        private Builder(String name) {
+            this.name = Objects.requireNonNull(name, "name");
+        }
+
+        public Builder maxThreads(int threads) {
+            if (threads <= 0) throw new IllegalArgumentException("maxThreads must be > 0");
+            this.maxThreads = threads;
+            return this;
+        }
+
+        /**
+         * Tasks allowed to wait for a thread; 0 hands tasks over directly and rejects when all threads are busy.
+         */
+        public Builder queueCapacity(int capacity) {
+            if (capacity < 0) throw new IllegalArgumentException("queueCapacity must be >= 0");
+            this.queueCapacity = capacity;
+            return this;
+        }
+
+        public Builder keepAlive(Duration keepAlive) {
+            Objects.requireNonNull(keepAlive, "keepAlive");
+            if (keepAlive.isNegative() || keepAlive.isZero()) throw new IllegalArgumentException("keepAlive must be > 0");
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        public ThreadPoolBulkhead build() {
+            return new ThreadPoolBulkhead(this);
+        }
+    }
+}
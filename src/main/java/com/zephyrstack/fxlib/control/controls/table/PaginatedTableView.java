@@ -31,6 +31,9 @@ import java.util.stream.Collectors;
 public final class PaginatedTableView<T> extends BorderPane {
     @FunctionalInterface
     public interface DataProvider<T> {
+        /**
+         * Fetch one page. The returned future is cancelled once a newer request supersedes it.
+         */
         CompletableFuture<PagedResult<T>> fetch(int page, int size, String query);
     }
 
@@ -62,6 +65,7 @@ public final class PaginatedTableView<T> extends BorderPane {
     private final PauseTransition queryDebounce = new PauseTransition(Duration.millis(350));
     private final AtomicLong requestCounter = new AtomicLong();
     private volatile long newestRequestId = 0;
+    private CompletableFuture<?> pendingFetch;
     private DataProvider<T> dataProvider;
 
     public PaginatedTableView() {
@@ -229,6 +233,7 @@ public final class PaginatedTableView<T> extends BorderPane {
 
         long requestId = requestCounter.incrementAndGet();
         newestRequestId = requestId;
+        cancelPendingFetch();
 
         CompletableFuture<PagedResult<T>> future;
         try {
@@ -238,6 +243,7 @@ public final class PaginatedTableView<T> extends BorderPane {
             handleFailure(requestId, ex);
             return;
         }
+        pendingFetch = future;
 
         future.whenComplete((result, throwable) -> Platform.runLater(() -> {
             if (requestId != newestRequestId) return;
@@ -249,6 +255,16 @@ public final class PaginatedTableView<T> extends BorderPane {
         }));
     }
 
+    /**
+     * Cancels the superseded fetch so a provider backed by {@link com.zephyrstack.fxlib.networking.RestClient}
+     * aborts its exchange instead of downloading a page nobody will see.
+     */
+    private void cancelPendingFetch() {
+        CompletableFuture<?> superseded = pendingFetch;
+        pendingFetch = null;
+        if (superseded != null) superseded.cancel(true);
+    }
+
     private void handleFailure(long requestId, Throwable throwable) {
         if (requestId != newestRequestId) return;
         loading.set(false);
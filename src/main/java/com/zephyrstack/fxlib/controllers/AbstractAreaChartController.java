@@ -103,6 +103,7 @@ public abstract class AbstractAreaChartController {
 
     private final AtomicLong requestCounter = new AtomicLong();
     private volatile long newestRequestId;
+    private CompletableFuture<?> pendingFetch;
 
     private PauseTransition searchDebounce;
     private List<LegendSlot> legendSlots = List.of();
@@ -299,6 +300,7 @@ public abstract class AbstractAreaChartController {
 
         long requestId = requestCounter.incrementAndGet();
         newestRequestId = requestId;
+        cancelPendingFetch();
 
         CompletableFuture<ChartSnapshot> future;
         try {
@@ -307,6 +309,7 @@ public abstract class AbstractAreaChartController {
             handleFailure(requestId, ex);
             return;
         }
+        pendingFetch = future;
 
         future.whenComplete((snapshot, throwable) ->
                 Platform.runLater(() -> {
@@ -319,6 +322,16 @@ public abstract class AbstractAreaChartController {
                 }));
     }
 
+    /**
+     * Cancels the fetch a newer query supersedes, aborting its exchange when the provider is backed by
+     * {@link com.zephyrstack.fxlib.networking.RestClient}.
+     */
+    private void cancelPendingFetch() {
+        CompletableFuture<?> superseded = pendingFetch;
+        pendingFetch = null;
+        if (superseded != null) superseded.cancel(true);
+    }
+
     private void handleFailure(long requestId, Throwable throwable) {
         if (requestId != newestRequestId) return;
         loading.set(false);
@@ -636,7 +649,8 @@ public abstract class AbstractAreaChartController {
 
     public interface AreaChartDataProvider {
         /**
-         * Fetch chart data for the given query. Implementations may run asynchronously.
+         * Fetch chart data for the given query. Implementations may run asynchronously; the returned future is
+         * cancelled once a newer query supersedes it.
          */
         CompletableFuture<ChartSnapshot> fetch(ChartQuery query);
     }
@@ -80,6 +80,7 @@ public abstract class AbstractPaginatedTableController<T> {
     private final Label placeholderLabel = new Label("No data");
     private final AtomicLong requestCounter = new AtomicLong();
     private volatile long newestRequestId = 0;
+    private CompletableFuture<?> pendingFetch;
 
     private PauseTransition searchDebounce; // created in initialize()
 
@@ -238,6 +239,7 @@ public abstract class AbstractPaginatedTableController<T> {
         placeholderLabel.setText("Loading…");
         long requestId = requestCounter.incrementAndGet();
         newestRequestId = requestId;
+        cancelPendingFetch();
 
         CompletableFuture<PaginatedTableView.PagedResult<T>> future;
         try {
@@ -247,6 +249,7 @@ public abstract class AbstractPaginatedTableController<T> {
             handleFailure(requestId, ex);
             return;
         }
+        pendingFetch = future;
 
         future.whenComplete((result, throwable) -> Platform.runLater(() -> {
             if (requestId != newestRequestId) return;
@@ -258,6 +261,16 @@ public abstract class AbstractPaginatedTableController<T> {
         }));
     }
 
+    /**
+     * Cancels the fetch a newer request supersedes, aborting its exchange when the provider is backed by
+     * {@link com.zephyrstack.fxlib.networking.RestClient}.
+     */
+    private void cancelPendingFetch() {
+        CompletableFuture<?> superseded = pendingFetch;
+        pendingFetch = null;
+        if (superseded != null) superseded.cancel(true);
+    }
+
     private void handleFailure(long requestId, Throwable throwable) {
         if (requestId != newestRequestId) return;
         loading.set(false);
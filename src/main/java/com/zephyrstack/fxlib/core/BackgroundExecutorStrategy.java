@@ -0,0 +1,99 @@
+package com.zephyrstack.fxlib.core;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * How {@link ZephyrFxApplicationContext} creates its background executor, chosen at
+ * {@link ZephyrFxApplicationContext#initialize(javafx.application.Application, javafx.stage.Stage, java.util.Map,
+ * BackgroundExecutorStrategy) initialize} time. The executor runs {@code supplyAsync}, {@link FxTaskRunner} tasks and
+ * {@code FxFutures.supply} and is shut down with the context.
+ * <ul>
+ *     <li>{@link #virtualThreads()}: a virtual thread per task; the right fit for providers that block on I/O.</li>
+ *     <li>{@link #boundedPool(int, int)}: fixed platform threads with a bounded queue; rejects when both are full.</li>
+ *     <li>{@link #forkJoin(int)}: a work-stealing pool for CPU-bound work that does not block.</li>
+ *     <li>{@link #cachedPool()}: the previous behaviour and the default, one platform thread per concurrent task.</li>
+ * </ul>
+ */
+@FunctionalInterface
+public interface BackgroundExecutorStrategy {
+
+    /**
+     * Creates the executor; called once per context.
+     */
+    ExecutorService create();
+
+    static BackgroundExecutorStrategy virtualThreads() {
+        return () -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("zephyrfx-virtual-", 1).factory());
+    }
+
+    /**
+     * {@code threads} daemon platform threads, idle ones retiring after 30 seconds, and room for
+     * {@code queueCapacity} waiting tasks. Work submitted beyond that is rejected: the future returned by
+     * {@code supplyAsync} or {@link FxTaskRunner} fails with {@link java.util.concurrent.RejectedExecutionException}
+     * and the {@code uiError} callback receives it on the FX thread.
+     */
+    static BackgroundExecutorStrategy boundedPool(int threads, int queueCapacity) {
+        return boundedPool(threads, queueCapacity, Duration.ofSeconds(30));
+    }
+
+    static BackgroundExecutorStrategy boundedPool(int threads, int queueCapacity, Duration keepAlive) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be > 0");
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity must be > 0");
+        Objects.requireNonNull(keepAlive, "keepAlive");
+        if (keepAlive.isNegative() || keepAlive.isZero()) throw new IllegalArgumentException("keepAlive must be > 0");
+        return () -> {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, keepAlive.toNanos(), TimeUnit.NANOSECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), platformThreads("zephyrfx-worker-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        };
+    }
+
+    /**
+     * Work-stealing pool in FIFO mode with {@code parallelism} workers. Blocking tasks hold a worker for their whole
+     * duration, so prefer {@link #virtualThreads()} for I/O.
+     */
+    static BackgroundExecutorStrategy forkJoin(int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+        return () -> {
+            AtomicInteger counter = new AtomicInteger();
+            return new ForkJoinPool(parallelism, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("zephyrfx-fj-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, null, true);
+        };
+    }
+
+    static BackgroundExecutorStrategy forkJoin() {
+        return forkJoin(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Unbounded cached pool of daemon platform threads.
+     */
+    static BackgroundExecutorStrategy cachedPool() {
+        return () -> Executors.newCachedThreadPool(platformThreads("zephyrfx-worker-"));
+    }
+
+    private static ThreadFactory platformThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.zephyrstack.fxlib.core;
 
+import com.zephyrstack.fxlib.concurrent.FxFutures;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -42,7 +43,7 @@ public final class FxTaskRunner {
         private FxTask(String name, Supplier<T> work) {
             this.name = name == null ? "fx-task" : name;
             status.set(TaskStatus.RUNNING);
-            future = CompletableFuture.supplyAsync(work, ctx.getBackgroundExecutor());
+            future = FxFutures.supply(work, ctx.getBackgroundExecutor());
             future.whenComplete((result, throwable) -> {
                 if (throwable == null) {
                     updateStatus(TaskStatus.SUCCEEDED);
@@ -1,5 +1,7 @@
 package com.zephyrstack.fxlib.core;
 
+import com.zephyrstack.fxlib.concurrent.FxExecutors;
+import com.zephyrstack.fxlib.concurrent.FxFutures;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -21,7 +23,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.security.CodeSource;
@@ -31,12 +32,6 @@ import java.security.ProtectionDomain;
  * Central runtime context for ZephyrFX modules.
  */
 public final class ZephyrFxApplicationContext implements AutoCloseable {
-    private static final AtomicInteger WORKER_COUNTER = new AtomicInteger();
-    private static final ThreadFactory WORKER_FACTORY = r -> {
-        Thread t = new Thread(r, "zephyrfx-worker-" + WORKER_COUNTER.incrementAndGet());
-        t.setDaemon(true);
-        return t;
-    };
     private static final Executor FX = command -> {
         if (Platform.isFxApplicationThread()) command.run();
         else Platform.runLater(command);
@@ -57,11 +52,12 @@ public final class ZephyrFxApplicationContext implements AutoCloseable {
 
     private ZephyrFxApplicationContext(Application application,
                                        Stage primaryStage,
-                                       Map<String, Object> initialState) {
+                                       Map<String, Object> initialState,
+                                       BackgroundExecutorStrategy executorStrategy) {
         this.application = application;
         this.primaryStage = primaryStage;
         this.sharedState = new ConcurrentHashMap<>(initialState == null ? Map.of() : initialState);
-        this.backgroundExecutor = Executors.newCachedThreadPool(WORKER_FACTORY);
+        this.backgroundExecutor = Objects.requireNonNull(executorStrategy.create(), "executorStrategy created null");
         registerResourceLoader(ZephyrFxApplicationContext.class.getClassLoader());
         registerResourceAnchor(ZephyrFxApplicationContext.class);
         registerResourceLoader(Thread.currentThread().getContextClassLoader());
@@ -80,9 +76,22 @@ public final class ZephyrFxApplicationContext implements AutoCloseable {
     public static synchronized void initialize(Application application,
                                                Stage primaryStage,
                                                Map<String, Object> initialState) {
+        initialize(application, primaryStage, initialState, BackgroundExecutorStrategy.cachedPool());
+    }
+
+    /**
+     * Initializes the context with the given background executor strategy, which also becomes
+     * {@link FxExecutors#background()} until {@link #shutdown()}.
+     */
+    public static synchronized void initialize(Application application,
+                                               Stage primaryStage,
+                                               Map<String, Object> initialState,
+                                               BackgroundExecutorStrategy executorStrategy) {
         Objects.requireNonNull(application, "application");
+        Objects.requireNonNull(executorStrategy, "executorStrategy");
         if (instance != null) throw new IllegalStateException("ZephyrFxApplicationContext already initialized");
-        instance = new ZephyrFxApplicationContext(application, primaryStage, initialState);
+        instance = new ZephyrFxApplicationContext(application, primaryStage, initialState, executorStrategy);
+        FxExecutors.setBackground(instance.backgroundExecutor);
     }
 
     public static ZephyrFxApplicationContext getInstance() {
@@ -386,8 +395,7 @@ public final class ZephyrFxApplicationContext implements AutoCloseable {
 
     // ---------- async (Task-free, CF-based) ----------
     public <T> CompletableFuture<T> supplyAsync(Supplier<T> work) {
-        Objects.requireNonNull(work, "work");
-        return CompletableFuture.supplyAsync(work, backgroundExecutor);
+        return FxFutures.supply(work, backgroundExecutor);
     }
 
     /**
@@ -396,8 +404,7 @@ public final class ZephyrFxApplicationContext implements AutoCloseable {
     public <T> CompletableFuture<Void> supplyAsync(Supplier<T> work,
                                                    Consumer<T> uiSuccess,
                                                    Consumer<Throwable> uiError) {
-        Objects.requireNonNull(work, "work");
-        CompletableFuture<T> cf = CompletableFuture.supplyAsync(work, backgroundExecutor);
+        CompletableFuture<T> cf = FxFutures.supply(work, backgroundExecutor);
         cf.thenAcceptAsync(res -> {
                     if (uiSuccess != null) uiSuccess.accept(res);
                 }, FX)
@@ -476,6 +483,7 @@ public final class ZephyrFxApplicationContext implements AutoCloseable {
     public void shutdown() {
         shutdownHooks.forEach(this::runSafely);
         shutdownHooks.clear();
+        if (FxExecutors.background() == backgroundExecutor) FxExecutors.setBackground(null);
         backgroundExecutor.shutdownNow();
         instance = null;
     }
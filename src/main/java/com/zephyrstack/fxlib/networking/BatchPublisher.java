@@ -0,0 +1,144 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cold publisher behind {@link RestClient#sendAll}: every subscription sends the batch once and emits one
+ * {@link RestClient.BatchResult} per request in completion order.
+ * <p>
+ * At most {@code window} requests are in flight or completed-but-undelivered at any time, so a slow subscriber
+ * throttles the batch instead of buffering every response. All signals are emitted from a single drain loop
+ * serialized by a work-in-progress counter; completion callbacks only enqueue results and trigger the loop.
+ */
+final class BatchPublisher implements Flow.Publisher<RestClient.BatchResult> {
+    private final List<RestRequest> requests;
+    private final int window;
+    private final RestClient.BatchPolicy policy;
+    private final Function<RestRequest, CompletableFuture<RestResponse>> sender;
+
+    BatchPublisher(List<RestRequest> requests,
+                   int window,
+                   RestClient.BatchPolicy policy,
+                   Function<RestRequest, CompletableFuture<RestResponse>> sender) {
+        this.requests = requests;
+        this.window = window;
+        this.policy = policy;
+        this.sender = sender;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super RestClient.BatchResult> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        BatchSubscription subscription = new BatchSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    private final class BatchSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super RestClient.BatchResult> subscriber;
+        private final ConcurrentLinkedQueue<RestClient.BatchResult> ready = new ConcurrentLinkedQueue<>();
+        private final Set<CompletableFuture<RestResponse>> inFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+        private int next;
+        private int delivered;
+        private boolean done;
+
+        private BatchSubscription(Flow.Subscriber<? super RestClient.BatchResult> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("non-positive request: " + n);
+                cancelInFlight();
+            } else {
+                requested.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelInFlight();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                if (done || cancelled) return;
+                long demand = requested.get();
+                long emitted = 0;
+                RestClient.BatchResult result;
+                while (emitted < demand && !cancelled && failure == null && (result = ready.poll()) != null) {
+                    outstanding.decrementAndGet();
+                    delivered++;
+                    emitted++;
+                    subscriber.onNext(result);
+                }
+                if (emitted > 0 && demand != Long.MAX_VALUE) requested.addAndGet(-emitted);
+                if (cancelled) return;
+                Throwable error = failure;
+                if (error != null) {
+                    done = true;
+                    cancelInFlight();
+                    subscriber.onError(error);
+                    return;
+                }
+                if (delivered == requests.size()) {
+                    done = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                while (next < requests.size() && outstanding.get() < window && !cancelled) {
+                    issue(next++);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void issue(int index) {
+            RestRequest request = requests.get(index);
+            outstanding.incrementAndGet();
+            CompletableFuture<RestResponse> future;
+            try {
+                future = sender.apply(request);
+            } catch (RuntimeException ex) {
+                future = CompletableFuture.failedFuture(ex);
+            }
+            inFlight.add(future);
+            // cancel() or request(n <= 0) may have walked inFlight between the drain loop's check and the add above
+            if (cancelled || failure != null) future.cancel(true);
+            CompletableFuture<RestResponse> tracked = future;
+            future.whenComplete((response, throwable) -> {
+                inFlight.remove(tracked);
+                Throwable cause = throwable == null ? null : ResilienceInterceptors.unwrap(throwable);
+                if (cause != null && policy == RestClient.BatchPolicy.FAIL_FAST) {
+                    if (failure == null) failure = cause;
+                } else {
+                    ready.add(new RestClient.BatchResult(index, request, response, cause));
+                }
+                drain();
+            });
+        }
+
+        private void cancelInFlight() {
+            for (CompletableFuture<RestResponse> future : inFlight) future.cancel(true);
+        }
+    }
+}
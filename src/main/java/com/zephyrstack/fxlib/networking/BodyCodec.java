@@ -0,0 +1,63 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.stream.Stream;
+
+/**
+ * Pluggable serialization SPI (typically JSON) used by {@link RestClient} for typed requests and responses.
+ * The library ships no implementation so the core module stays free of a JSON dependency; adapters over
+ * Jackson, Gson, etc. either get passed to {@link RestClient.Builder#codec(BodyCodec)} or are registered as a
+ * {@link ServiceLoader} provider and discovered via {@link #load(String)}.
+ */
+public interface BodyCodec {
+
+    /**
+     * Media type written by {@link #encode(Object)} and sent as {@code Content-Type}, e.g. {@code application/json}.
+     */
+    String mediaType();
+
+    /**
+     * Whether this codec can handle the given media type (parameters such as {@code charset} are stripped).
+     */
+    default boolean supports(String mediaType) {
+        return mediaType().equalsIgnoreCase(mediaType);
+    }
+
+    byte[] encode(Object value) throws IOException;
+
+    <T> BodyDecoder<T> decoder(Type type);
+
+    /**
+     * Decoder for a top-level array whose elements are emitted one by one while the body is still being read.
+     * The default implementation splits the array with {@link BodyDecoders#jsonArray} and decodes each element
+     * with {@link #decoder(Type)}; codecs with a native streaming parser should override it.
+     */
+    default <T> BodyDecoder<Stream<T>> elementDecoder(Class<T> elementType) {
+        BodyDecoder<T> element = decoder(elementType);
+        return BodyDecoders.jsonArray(json -> {
+            try {
+                return element.decode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Finds the first codec registered through {@link ServiceLoader} that supports the media type.
+     */
+    static Optional<BodyCodec> load(String mediaType) {
+        String normalized = mediaType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return ServiceLoader.load(BodyCodec.class).stream()
+                .map(ServiceLoader.Provider::get)
+                .filter(codec -> codec.supports(normalized))
+                .findFirst();
+    }
+}
@@ -0,0 +1,33 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Decodes a response body straight from the (already content-decoded) byte stream into a typed value, so the
+ * body never has to be materialized as a {@code String} first. Used by
+ * {@link RestClient#sendAsync(RestRequest, BodyDecoder)}.
+ * <p>
+ * Decoders run on the client's decode executor and may block while reading. The stream is closed by the client
+ * once {@link #decode} returns, unless the result is itself a lazily consumed {@link java.util.stream.BaseStream},
+ * in which case closing the result closes the body.
+ *
+ * @param <T> decoded type
+ */
+@FunctionalInterface
+public interface BodyDecoder<T> {
+
+    /**
+     * @param body    response body; fully streaming, bytes become readable as they arrive
+     * @param charset charset declared by the response {@code Content-Type}, UTF-8 when absent
+     */
+    T decode(InputStream body, Charset charset) throws IOException;
+
+    default <R> BodyDecoder<R> map(Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return (body, charset) -> mapper.apply(decode(body, charset));
+    }
+}
@@ -0,0 +1,180 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Built-in {@link BodyDecoder} implementations that need no serialization library.
+ */
+public final class BodyDecoders {
+    private BodyDecoders() {
+    }
+
+    public static BodyDecoder<String> ofString() {
+        return (body, charset) -> new String(body.readAllBytes(), charset);
+    }
+
+    public static BodyDecoder<byte[]> ofByteArray() {
+        return (body, charset) -> body.readAllBytes();
+    }
+
+    /**
+     * Lazily decoded lines; closing the stream closes the body.
+     */
+    public static BodyDecoder<Stream<String>> ofLines() {
+        return (body, charset) -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+            return reader.lines().onClose(() -> closeQuietly(reader));
+        };
+    }
+
+    /**
+     * Streams the elements of a top-level JSON array. The array is split incrementally while the body is read,
+     * and each element's raw JSON text is handed to {@code elementParser} (for example a JSON library's
+     * {@code readValue}), so only one element is held in memory at a time. Closing the stream closes the body.
+     * I/O and syntax errors surface as {@link UncheckedIOException} while iterating.
+     */
+    public static <T> BodyDecoder<Stream<T>> jsonArray(Function<String, ? extends T> elementParser) {
+        Objects.requireNonNull(elementParser, "elementParser");
+        return (body, charset) -> {
+            Reader reader = new BufferedReader(new InputStreamReader(body, charset), 16 * 1024);
+            Iterator<String> elements = new JsonArraySplitter(reader);
+            Stream<String> raw = StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED | Spliterator.NONNULL), false);
+            return raw.<T>map(elementParser).onClose(() -> closeQuietly(reader));
+        };
+    }
+
+    private static void closeQuietly(Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // the connection is released either way
+        }
+    }
+
+    /**
+     * Minimal scanner that tracks nesting depth and string/escape state to find element boundaries of a JSON
+     * array without building a tree. Element text is accumulated in a reused buffer.
+     */
+    private static final class JsonArraySplitter implements Iterator<String> {
+        private final Reader reader;
+        private final StringBuilder element = new StringBuilder(256);
+        private boolean started;
+        private boolean finished;
+        private int pushback = -1;
+        private String next;
+
+        private JsonArraySplitter(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) return true;
+            if (finished) return false;
+            try {
+                next = advance();
+            } catch (IOException ex) {
+                finished = true;
+                throw new UncheckedIOException(ex);
+            }
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String current = next;
+            next = null;
+            return current;
+        }
+
+        private String advance() throws IOException {
+            if (!started) {
+                started = true;
+                int first = skipWhitespace();
+                if (first == -1) {
+                    finished = true;
+                    return null;
+                }
+                if (first != '[') throw new IOException("Expected a JSON array but found '" + (char) first + "'");
+                int afterBracket = skipWhitespace();
+                if (afterBracket == ']') {
+                    finished = true;
+                    return null;
+                }
+                pushback = afterBracket;
+            }
+
+            element.setLength(0);
+            int depth = 0;
+            boolean inString = false;
+            boolean escaped = false;
+            while (true) {
+                int c = read();
+                if (c == -1) throw new EOFException("Unexpected end of JSON array");
+                if (inString) {
+                    element.append((char) c);
+                    if (escaped) escaped = false;
+                    else if (c == '\\') escaped = true;
+                    else if (c == '"') inString = false;
+                    continue;
+                }
+                switch (c) {
+                    case '"' -> inString = true;
+                    case '{', '[' -> depth++;
+                    case '}', ']' -> {
+                        if (depth == 0) {
+                            if (c == '}') throw new IOException("Unbalanced '}' in JSON array");
+                            finished = true;
+                            return completeElement();
+                        }
+                        depth--;
+                    }
+                    case ',' -> {
+                        if (depth == 0) return completeElement();
+                    }
+                    default -> {
+                    }
+                }
+                element.append((char) c);
+            }
+        }
+
+        private String completeElement() throws IOException {
+            String value = element.toString().strip();
+            if (value.isEmpty()) throw new IOException("Empty element in JSON array");
+            return value;
+        }
+
+        private int read() throws IOException {
+            if (pushback >= 0) {
+                int c = pushback;
+                pushback = -1;
+                return c;
+            }
+            return reader.read();
+        }
+
+        private int skipWhitespace() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c != -1 && Character.isWhitespace(c));
+            return c;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable cache entry stored by a {@link RestResponseCache}.
+ *
+ * @param statusCode      original status code
+ * @param body            raw (already decoded) body bytes
+ * @param headers         response headers
+ * @param uri             response URI
+ * @param version         protocol version of the original exchange
+ * @param storedAtMillis  epoch millis at which the entry was stored or last revalidated
+ * @param expiresAtMillis epoch millis after which the entry must be revalidated
+ * @param varyValues      request header values selected by the response {@code Vary} header
+ */
+public record CachedResponse(
+        int statusCode,
+        byte[] body,
+        HttpHeaders headers,
+        URI uri,
+        HttpClient.Version version,
+        long storedAtMillis,
+        long expiresAtMillis,
+        Map<String, String> varyValues) {
+
+    private static final int FORMAT_VERSION = 1;
+
+    public CachedResponse {
+        Objects.requireNonNull(body, "body");
+        Objects.requireNonNull(headers, "headers");
+        Objects.requireNonNull(uri, "uri");
+        Objects.requireNonNull(version, "version");
+        varyValues = varyValues == null ? Map.of() : Map.copyOf(varyValues);
+    }
+
+    public boolean isFresh(long nowMillis) {
+        return nowMillis < expiresAtMillis;
+    }
+
+    public Optional<String> etag() {
+        return headers.firstValue("ETag");
+    }
+
+    public Optional<String> lastModified() {
+        return headers.firstValue("Last-Modified");
+    }
+
+    public boolean hasValidators() {
+        return etag().isPresent() || lastModified().isPresent();
+    }
+
+    /**
+     * Approximate memory footprint used for the byte bound of the cache.
+     */
+    public long sizeInBytes() {
+        long size = body.length + 64L;
+        for (Map.Entry<String, List<String>> entry : headers.map().entrySet()) {
+            size += entry.getKey().length();
+            for (String value : entry.getValue()) size += value.length();
+        }
+        return size;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(statusCode);
+        out.writeUTF(uri.toString());
+        out.writeUTF(version.name());
+        out.writeLong(storedAtMillis);
+        out.writeLong(expiresAtMillis);
+        Map<String, List<String>> headerMap = headers.map();
+        out.writeInt(headerMap.size());
+        for (Map.Entry<String, List<String>> entry : headerMap.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String value : entry.getValue()) out.writeUTF(value);
+        }
+        out.writeInt(varyValues.size());
+        for (Map.Entry<String, String> entry : varyValues.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    static CachedResponse readFrom(DataInputStream in) throws IOException {
+        int format = in.readInt();
+        if (format != FORMAT_VERSION) throw new IOException("Unsupported cache entry format: " + format);
+        int statusCode = in.readInt();
+        URI uri = URI.create(in.readUTF());
+        HttpClient.Version version = HttpClient.Version.valueOf(in.readUTF());
+        long storedAt = in.readLong();
+        long expiresAt = in.readLong();
+        int headerCount = in.readInt();
+        Map<String, List<String>> headerMap = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            String name = in.readUTF();
+            int valueCount = in.readInt();
+            List<String> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) values.add(in.readUTF());
+            headerMap.put(name, values);
+        }
+        int varyCount = in.readInt();
+        Map<String, String> vary = new LinkedHashMap<>();
+        for (int i = 0; i < varyCount; i++) vary.put(in.readUTF(), in.readUTF());
+        byte[] body = in.readNBytes(in.readInt());
+        return new CachedResponse(statusCode, body, HttpHeaders.of(headerMap, (name, value) -> true),
+                uri, version, storedAt, expiresAt, vary);
+    }
+}
@@ -0,0 +1,168 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Admission control for {@link RestClient}: caps the number of exchanges in flight globally and per host.
+ * Callers over the limit wait in a non-blocking FIFO queue per {@link RestRequest.Priority}; when a permit is
+ * released the oldest waiter of the highest priority whose host still has capacity is admitted, so interactive
+ * calls overtake background prefetching without starving other hosts.
+ * <p>
+ * All state is guarded by one monitor; admitted futures are completed outside of it.
+ */
+final class ConcurrencyLimiter {
+    private final int maxGlobal;
+    private final int maxPerHost;
+    private final List<ArrayDeque<Waiter>> queues = new ArrayList<>();
+    private final Map<String, Integer> inFlightPerHost = new HashMap<>();
+    private int inFlight;
+    private int queued;
+    private long delayed;
+    private int maxQueueDepth;
+
+    ConcurrencyLimiter(int maxGlobal, int maxPerHost) {
+        this.maxGlobal = maxGlobal <= 0 ? Integer.MAX_VALUE : maxGlobal;
+        this.maxPerHost = maxPerHost <= 0 ? Integer.MAX_VALUE : maxPerHost;
+        for (int i = 0; i < RestRequest.Priority.values().length; i++) queues.add(new ArrayDeque<>());
+    }
+
+    static String hostKey(URI uri) {
+        String authority = uri.getAuthority();
+        return (uri.getScheme() + "://" + (authority == null ? "" : authority)).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns a future that completes with a permit once the exchange may start. Cancelling the future while it
+     * is queued withdraws the request.
+     */
+    CompletableFuture<Permit> acquire(String host, RestRequest.Priority priority) {
+        Waiter waiter;
+        ArrayDeque<Waiter> queue = queues.get(priority.ordinal());
+        synchronized (this) {
+            if (hasCapacity(host)) {
+                return CompletableFuture.completedFuture(admit(host));
+            }
+            waiter = new Waiter(host, new CompletableFuture<>());
+            queue.addLast(waiter);
+            queued++;
+            delayed++;
+            maxQueueDepth = Math.max(maxQueueDepth, queued);
+        }
+        waiter.future().whenComplete((permit, failure) -> {
+            if (failure != null) withdraw(queue, waiter);
+        });
+        return waiter.future();
+    }
+
+    /**
+     * Drops a waiter whose future was cancelled or failed while queued; a no-op once dispatch has taken it.
+     */
+    private synchronized void withdraw(ArrayDeque<Waiter> queue, Waiter waiter) {
+        if (queue.remove(waiter)) queued--;
+    }
+
+    synchronized RestClient.ConcurrencyStats stats() {
+        int[] depth = new int[queues.size()];
+        for (int i = 0; i < depth.length; i++) depth[i] = queues.get(i).size();
+        return new RestClient.ConcurrencyStats(inFlight, queued,
+                depth[RestRequest.Priority.INTERACTIVE.ordinal()],
+                depth[RestRequest.Priority.NORMAL.ordinal()],
+                depth[RestRequest.Priority.BACKGROUND.ordinal()],
+                delayed, maxQueueDepth, Map.copyOf(inFlightPerHost));
+    }
+
+    private void release(String host) {
+        List<Waiter> admitted = new ArrayList<>(1);
+        synchronized (this) {
+            inFlight--;
+            inFlightPerHost.computeIfPresent(host, (key, count) -> count <= 1 ? null : count - 1);
+            dispatch(admitted);
+        }
+        for (Waiter waiter : admitted) {
+            if (!waiter.future().complete(waiter.permit)) {
+                // cancelled between dispatch and completion; hand the slot on
+                waiter.permit.release();
+            }
+        }
+    }
+
+    private void dispatch(List<Waiter> admitted) {
+        for (ArrayDeque<Waiter> queue : queues) {
+            if (inFlight >= maxGlobal) return;
+            Iterator<Waiter> iterator = queue.iterator();
+            while (iterator.hasNext() && inFlight < maxGlobal) {
+                Waiter waiter = iterator.next();
+                if (waiter.future().isDone()) {
+                    iterator.remove();
+                    queued--;
+                } else if (hostCount(waiter.host()) < maxPerHost) {
+                    iterator.remove();
+                    queued--;
+                    waiter.permit = admit(waiter.host());
+                    admitted.add(waiter);
+                }
+            }
+        }
+    }
+
+    private boolean hasCapacity(String host) {
+        return inFlight < maxGlobal && hostCount(host) < maxPerHost;
+    }
+
+    private int hostCount(String host) {
+        return inFlightPerHost.getOrDefault(host, 0);
+    }
+
+    private Permit admit(String host) {
+        inFlight++;
+        inFlightPerHost.merge(host, 1, Integer::sum);
+        return new Permit(host);
+    }
+
+    /**
+     * Slot held by one exchange. Releasing is idempotent.
+     */
+    final class Permit {
+        private final String host;
+        private boolean released;
+
+        private Permit(String host) {
+            this.host = host;
+        }
+
+        void release() {
+            synchronized (ConcurrencyLimiter.this) {
+                if (released) return;
+                released = true;
+            }
+            ConcurrencyLimiter.this.release(host);
+        }
+    }
+
+    private static final class Waiter {
+        private final String host;
+        private final CompletableFuture<Permit> future;
+        private Permit permit;
+
+        private Waiter(String host, CompletableFuture<Permit> future) {
+            this.host = host;
+            this.future = future;
+        }
+
+        String host() {
+            return host;
+        }
+
+        CompletableFuture<Permit> future() {
+            return future;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * {@code Content-Encoding} support for {@link RestClient}: gzip/deflate response bodies are inflated
+ * incrementally as buffers arrive (so streaming handlers stay streaming), and large request bodies can be
+ * gzip-compressed before sending.
+ */
+final class ContentEncoding {
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * Wraps a body handler so that gzip/deflate encoded responses are decoded before reaching it.
+     */
+    static <T> HttpResponse.BodyHandler<T> decoding(HttpResponse.BodyHandler<T> delegate) {
+        return info -> {
+            HttpResponse.BodySubscriber<T> downstream = delegate.apply(info);
+            String encoding = supportedEncoding(info.headers());
+            return encoding == null ? downstream : new DecodingSubscriber<>(downstream, encoding.equals("gzip"));
+        };
+    }
+
+    /**
+     * Headers as seen by callers once the body has been decoded: {@code Content-Encoding} and the (compressed)
+     * {@code Content-Length} no longer describe the body and are dropped.
+     */
+    static HttpHeaders decodedHeaders(HttpHeaders headers) {
+        if (supportedEncoding(headers) == null) return headers;
+        return HttpHeaders.of(headers.map(), (name, value) ->
+                !name.equalsIgnoreCase("Content-Encoding") && !name.equalsIgnoreCase("Content-Length"));
+    }
+
+    static byte[] gzip(byte[] body, int offset, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(body, offset, length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to gzip request body", ex);
+        }
+        return out.toByteArray();
+    }
+
+    private static String supportedEncoding(HttpHeaders headers) {
+        String value = headers.firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        return switch (value) {
+            case "gzip", "x-gzip" -> "gzip";
+            case "deflate" -> "deflate";
+            default -> null;
+        };
+    }
+
+    /**
+     * Body subscriber that inflates each upstream batch and forwards the decoded bytes one batch per batch,
+     * leaving demand and backpressure entirely to the downstream subscriber.
+     */
+    private static final class DecodingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final StreamDecoder decoder;
+        private Flow.Subscription subscription;
+        private boolean failed;
+
+        private DecodingSubscriber(HttpResponse.BodySubscriber<T> downstream, boolean gzip) {
+            this.downstream = downstream;
+            this.decoder = new StreamDecoder(gzip);
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            if (failed) return;
+            List<ByteBuffer> decoded;
+            try {
+                decoded = decoder.decode(item);
+            } catch (IOException ex) {
+                failed = true;
+                subscription.cancel();
+                downstream.onError(ex);
+                return;
+            }
+            downstream.onNext(decoded);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (failed) return;
+            decoder.release();
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (failed) return;
+            try {
+                decoder.finish();
+            } catch (IOException ex) {
+                downstream.onError(ex);
+                return;
+            }
+            downstream.onComplete();
+        }
+    }
+
+    /**
+     * Incremental gzip/zlib decoder. Gzip headers and trailers may be split across arbitrary buffer boundaries;
+     * the trailer CRC and size are verified on completion.
+     */
+    private static final class StreamDecoder {
+        private enum Stage { HEADER, BODY, TRAILER }
+
+        private final boolean gzip;
+        private final CRC32 crc = new CRC32();
+        private final byte[] chunk = new byte[8192];
+        private byte[] pending = new byte[16];
+        private int pendingCount;
+        private Inflater inflater;
+        private Stage stage = Stage.HEADER;
+        private long inputBytes;
+        private long outputBytes;
+
+        private StreamDecoder(boolean gzip) {
+            this.gzip = gzip;
+        }
+
+        List<ByteBuffer> decode(List<ByteBuffer> buffers) throws IOException {
+            List<ByteBuffer> out = new ArrayList<>(buffers.size());
+            for (ByteBuffer buffer : buffers) {
+                int length = buffer.remaining();
+                if (length == 0) continue;
+                byte[] data;
+                int offset;
+                if (buffer.hasArray()) {
+                    data = buffer.array();
+                    offset = buffer.arrayOffset() + buffer.position();
+                } else {
+                    data = new byte[length];
+                    buffer.duplicate().get(data);
+                    offset = 0;
+                }
+                inputBytes += length;
+                feed(data, offset, length, out);
+            }
+            return out;
+        }
+
+        void finish() throws IOException {
+            try {
+                if (inputBytes == 0) return;
+                if (gzip) {
+                    if (stage != Stage.TRAILER || pendingCount < 8) {
+                        throw new EOFException("Unexpected end of gzip response body");
+                    }
+                    long expectedCrc = readIntLE(pending, 0) & 0xFFFFFFFFL;
+                    long expectedSize = readIntLE(pending, 4) & 0xFFFFFFFFL;
+                    if (expectedCrc != crc.getValue() || expectedSize != (outputBytes & 0xFFFFFFFFL)) {
+                        throw new ZipException("Corrupt gzip response body (CRC or size mismatch)");
+                    }
+                } else if (inflater == null || !inflater.finished()) {
+                    throw new EOFException("Unexpected end of deflate response body");
+                }
+            } finally {
+                release();
+            }
+        }
+
+        void release() {
+            if (inflater != null) inflater.end();
+        }
+
+        private void feed(byte[] data, int offset, int length, List<ByteBuffer> out) throws IOException {
+            switch (stage) {
+                case HEADER -> {
+                    append(data, offset, length);
+                    int headerLength = gzip ? gzipHeaderLength(pending, pendingCount) : (pendingCount >= 2 ? 0 : -1);
+                    if (headerLength < 0) return;
+                    inflater = new Inflater(gzip || !isZlibHeader(pending));
+                    stage = Stage.BODY;
+                    byte[] rest = Arrays.copyOfRange(pending, headerLength, pendingCount);
+                    pendingCount = 0;
+                    inflate(rest, 0, rest.length, out);
+                }
+                case BODY -> inflate(data, offset, length, out);
+                case TRAILER -> append(data, offset, length);
+            }
+        }
+
+        private void inflate(byte[] data, int offset, int length, List<ByteBuffer> out) throws IOException {
+            inflater.setInput(data, offset, length);
+            try {
+                while (true) {
+                    int produced = inflater.inflate(chunk);
+                    if (produced > 0) {
+                        crc.update(chunk, 0, produced);
+                        outputBytes += produced;
+                        out.add(ByteBuffer.wrap(Arrays.copyOf(chunk, produced)));
+                        continue;
+                    }
+                    if (inflater.finished()) {
+                        int remaining = inflater.getRemaining();
+                        stage = Stage.TRAILER;
+                        if (remaining > 0) append(data, offset + length - remaining, remaining);
+                        return;
+                    }
+                    if (inflater.needsDictionary()) throw new ZipException("Preset dictionaries are not supported");
+                    if (inflater.needsInput()) return;
+                }
+            } catch (DataFormatException ex) {
+                throw new ZipException("Invalid compressed response body: " + ex.getMessage());
+            }
+        }
+
+        private void append(byte[] data, int offset, int length) {
+            if (pendingCount + length > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingCount + length));
+            }
+            System.arraycopy(data, offset, pending, pendingCount, length);
+            pendingCount += length;
+        }
+
+        private static boolean isZlibHeader(byte[] bytes) {
+            int cmf = bytes[0] & 0xFF;
+            int flg = bytes[1] & 0xFF;
+            return (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+        }
+
+        private static int gzipHeaderLength(byte[] bytes, int count) throws IOException {
+            if (count < 10) return -1;
+            if ((bytes[0] & 0xFF) != 0x1F || (bytes[1] & 0xFF) != 0x8B) throw new ZipException("Not in GZIP format");
+            if (bytes[2] != 8) throw new ZipException("Unsupported gzip compression method");
+            int flags = bytes[3] & 0xFF;
+            int position = 10;
+            if ((flags & 0x04) != 0) {
+                if (count < position + 2) return -1;
+                position += 2 + ((bytes[position] & 0xFF) | ((bytes[position + 1] & 0xFF) << 8));
+                if (count < position) return -1;
+            }
+            if ((flags & 0x08) != 0 && (position = skipZeroTerminated(bytes, position, count)) < 0) return -1;
+            if ((flags & 0x10) != 0 && (position = skipZeroTerminated(bytes, position, count)) < 0) return -1;
+            if ((flags & 0x02) != 0) {
+                position += 2;
+                if (count < position) return -1;
+            }
+            return position;
+        }
+
+        private static int skipZeroTerminated(byte[] bytes, int position, int count) {
+            for (int i = position; i < count; i++) {
+                if (bytes[i] == 0) return i + 1;
+            }
+            return -1;
+        }
+
+        private static int readIntLE(byte[] bytes, int offset) {
+            return (bytes[offset] & 0xFF)
+                    | (bytes[offset + 1] & 0xFF) << 8
+                    | (bytes[offset + 2] & 0xFF) << 16
+                    | (bytes[offset + 3] & 0xFF) << 24;
+        }
+    }
+}
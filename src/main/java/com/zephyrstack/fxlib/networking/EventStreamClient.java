@@ -0,0 +1,335 @@
+package com.zephyrstack.fxlib.networking;
+
+import com.zephyrstack.fxlib.concurrent.FxBatcher;
+import com.zephyrstack.fxlib.concurrent.FxExecutors;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Long-lived push subscriptions over {@link RestClient}: Server-Sent Events ({@code text/event-stream}) and
+ * newline-delimited JSON. Each subscription reads its stream on a virtual thread, reconnects with exponential
+ * backoff when the connection drops (sending {@code Last-Event-ID} for SSE) and hands parsed items to the
+ * listener in batches on the delivery executor, by default the FX Application Thread.
+ * <p>
+ * Backpressure: at most {@link Builder#bufferCapacity(int)} items wait for delivery. Once the buffer is full the
+ * reader stops pulling from the socket until the UI catches up, so a fast server is throttled by TCP flow control
+ * instead of filling the heap or the FX event queue.
+ */
+public final class EventStreamClient {
+    private static final int ERROR_BODY_LIMIT = 4 * 1024;
+
+    private final RestClient client;
+    private final Executor deliveryExecutor;
+    private final int bufferCapacity;
+    private final Duration reconnectDelay;
+    private final Duration maxReconnectDelay;
+    private final Consumer<? super Throwable> errorHandler;
+
+    private EventStreamClient(Builder builder) {
+        this.client = builder.client;
+        this.deliveryExecutor = builder.deliveryExecutor;
+        this.bufferCapacity = builder.bufferCapacity;
+        this.reconnectDelay = builder.reconnectDelay;
+        this.maxReconnectDelay = builder.maxReconnectDelay;
+        this.errorHandler = builder.errorHandler;
+    }
+
+    public static Builder newBuilder(RestClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Subscribes to a Server-Sent Events endpoint. A {@code retry:} field from the server replaces the base
+     * reconnect delay; a {@code 204 No Content} answer ends the subscription.
+     */
+    public Subscription subscribe(RestRequest request, Consumer<? super List<ServerSentEvent>> listener) {
+        return start(request, "text/event-stream", EventStreamClient::readEvents, listener);
+    }
+
+    /**
+     * Subscribes to a newline-delimited JSON endpoint; every non-blank line is mapped with {@code parser}. Lines
+     * the parser rejects are reported to the error handler and skipped.
+     */
+    public <T> Subscription subscribeNdjson(RestRequest request,
+                                            Function<String, ? extends T> parser,
+                                            Consumer<? super List<T>> listener) {
+        Objects.requireNonNull(parser, "parser");
+        return start(request, "application/x-ndjson",
+                (reader, subscription, sink) -> readLines(reader, subscription, sink, parser), listener);
+    }
+
+    private <T> Subscription start(RestRequest request,
+                                   String accept,
+                                   StreamReader<T> streamReader,
+                                   Consumer<? super List<T>> listener) {
+        Objects.requireNonNull(request, "request");
+        Objects.requireNonNull(listener, "listener");
+        Subscription subscription = new Subscription();
+        FxBatcher<T> sink = new FxBatcher<>(deliveryExecutor, bufferCapacity, batch -> {
+            if (!subscription.isClosed()) listener.accept(batch);
+        });
+        subscription.thread = Thread.ofVirtual()
+                .name("rest-event-stream")
+                .start(() -> run(subscription, request, accept, streamReader, sink));
+        return subscription;
+    }
+
+    private <T> void run(Subscription subscription,
+                         RestRequest request,
+                         String accept,
+                         StreamReader<T> streamReader,
+                         FxBatcher<T> sink) {
+        long delay = reconnectDelay.toMillis();
+        while (!subscription.isClosed()) {
+            RestRequest.Builder attempt = request.toBuilder()
+                    .header("Accept", accept)
+                    .header("Cache-Control", "no-cache");
+            String lastEventId = subscription.lastEventId;
+            if (lastEventId != null) attempt.header("Last-Event-ID", lastEventId);
+            try (StreamingRestResponse<InputStream> response = client.sendForInputStream(attempt.build())) {
+                subscription.body = response.body();
+                if (subscription.isClosed()) break;
+                if (response.statusCode() == 204) break;
+                if (!response.isSuccess()) {
+                    HttpStatusException failure = new HttpStatusException(response.statusCode(),
+                            response.headers(), response.uri(),
+                            new String(response.body().readNBytes(ERROR_BODY_LIMIT), StandardCharsets.UTF_8));
+                    if (!isRetryable(response.statusCode())) {
+                        report(subscription, failure);
+                        break;
+                    }
+                    throw failure;
+                }
+                subscription.connected = true;
+                delay = baseDelay(subscription);
+                streamReader.read(new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8)),
+                        subscription, sink);
+                delay = baseDelay(subscription);
+            } catch (InterruptedException ex) {
+                break;
+            } catch (Exception ex) {
+                if (subscription.isClosed()) break;
+                report(subscription, ex);
+            } finally {
+                subscription.connected = false;
+                subscription.body = null;
+            }
+            if (subscription.isClosed()) break;
+            subscription.reconnects.increment();
+            try {
+                Thread.sleep(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+            } catch (InterruptedException ex) {
+                break;
+            }
+            delay = Math.min(Math.max(delay, 1L) * 2, Math.max(maxReconnectDelay.toMillis(), baseDelay(subscription)));
+        }
+        subscription.closed.set(true);
+    }
+
+    private long baseDelay(Subscription subscription) {
+        long retry = subscription.retryMillis;
+        return retry >= 0 ? retry : reconnectDelay.toMillis();
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    private void report(Subscription subscription, Throwable failure) {
+        if (errorHandler == null) return;
+        deliveryExecutor.execute(() -> {
+            if (!subscription.isClosed()) errorHandler.accept(failure);
+        });
+    }
+
+    /**
+     * Parses the event-stream format: {@code data}, {@code event}, {@code id} and {@code retry} fields, comment
+     * lines starting with {@code :}, and a blank line dispatching the event.
+     */
+    static void readEvents(BufferedReader reader, Subscription subscription, FxBatcher<ServerSentEvent> sink)
+            throws IOException, InterruptedException {
+        StringBuilder data = new StringBuilder();
+        boolean hasData = false;
+        String type = null;
+        boolean first = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (first && !line.isEmpty() && line.charAt(0) == '\uFEFF') line = line.substring(1);
+            first = false;
+            if (line.isEmpty()) {
+                if (hasData) {
+                    sink.put(new ServerSentEvent(subscription.lastEventId, type == null ? "message" : type,
+                            data.toString()));
+                }
+                data.setLength(0);
+                hasData = false;
+                type = null;
+                continue;
+            }
+            if (line.charAt(0) == ':') continue;
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(line.startsWith(" ", colon + 1) ? colon + 2 : colon + 1);
+            switch (field) {
+                case "data" -> {
+                    if (hasData) data.append('\n');
+                    data.append(value);
+                    hasData = true;
+                }
+                case "event" -> type = value;
+                case "id" -> {
+                    if (value.indexOf('\0') < 0) subscription.lastEventId = value.isEmpty() ? null : value;
+                }
+                case "retry" -> {
+                    if (!value.isEmpty() && value.length() < 19 && value.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                        subscription.retryMillis = Long.parseLong(value);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private <T> void readLines(BufferedReader reader,
+                               Subscription subscription,
+                               FxBatcher<T> sink,
+                               Function<String, ? extends T> parser) throws IOException, InterruptedException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            T item;
+            try {
+                item = parser.apply(line);
+            } catch (RuntimeException ex) {
+                report(subscription, ex);
+                continue;
+            }
+            if (item != null) sink.put(item);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StreamReader<T> {
+        void read(BufferedReader reader, Subscription subscription, FxBatcher<T> sink)
+                throws IOException, InterruptedException;
+    }
+
+    /**
+     * Handle of a running subscription. Closing it disconnects and stops reconnecting; batches not yet delivered
+     * are dropped.
+     */
+    public static final class Subscription implements AutoCloseable {
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final LongAdder reconnects = new LongAdder();
+        private volatile Thread thread;
+        private volatile InputStream body;
+        private volatile boolean connected;
+        private volatile String lastEventId;
+        private volatile long retryMillis = -1L;
+
+        private Subscription() {
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        public boolean isConnected() {
+            return connected;
+        }
+
+        /**
+         * Id of the last SSE event seen, sent as {@code Last-Event-ID} on reconnect.
+         */
+        public Optional<String> lastEventId() {
+            return Optional.ofNullable(lastEventId);
+        }
+
+        public long reconnects() {
+            return reconnects.sum();
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            InputStream current = body;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException ignored) {
+                }
+            }
+            Thread reader = thread;
+            if (reader != null) reader.interrupt();
+        }
+    }
+
+    public static final class Builder {
+        private final RestClient client;
+        private Executor deliveryExecutor = FxExecutors.fx();
+        private int bufferCapacity = 10_000;
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+        private Duration maxReconnectDelay = Duration.ofSeconds(30);
+        private Consumer<? super Throwable> errorHandler;
+
+        private Builder(RestClient client) {
+            this.client = Objects.requireNonNull(client, "client");
+        }
+
+        /**
+         * Executor batches are delivered on; defaults to {@link FxExecutors#fx()}.
+         */
+        public Builder deliveryExecutor(Executor executor) {
+            this.deliveryExecutor = Objects.requireNonNull(executor, "executor");
+            return this;
+        }
+
+        /**
+         * Maximum number of parsed items waiting for delivery before the reader pauses.
+         */
+        public Builder bufferCapacity(int capacity) {
+            if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+            this.bufferCapacity = capacity;
+            return this;
+        }
+
+        public Builder reconnectDelay(Duration initial, Duration max) {
+            Objects.requireNonNull(initial, "initial");
+            Objects.requireNonNull(max, "max");
+            if (initial.isNegative() || max.compareTo(initial) < 0) {
+                throw new IllegalArgumentException("Require 0 <= initial <= max");
+            }
+            this.reconnectDelay = initial;
+            this.maxReconnectDelay = max;
+            return this;
+        }
+
+        /**
+         * Receives connection failures and parse errors on the delivery executor; the subscription keeps running
+         * unless the server answered with a non-retryable status.
+         */
+        public Builder onError(Consumer<? super Throwable> handler) {
+            this.errorHandler = handler;
+            return this;
+        }
+
+        public EventStreamClient build() {
+            return new EventStreamClient(this);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Private-cache semantics on top of a {@link RestResponseCache}: decides what may be stored, how long it stays fresh
+ * ({@code Cache-Control: max-age}, {@code Expires}, {@code Last-Modified} heuristic), turns stale entries into
+ * conditional requests ({@code If-None-Match}/{@code If-Modified-Since}) and serves {@code 304} answers from the
+ * cached body.
+ */
+final class HttpCache {
+    private static final Set<Integer> CACHEABLE_STATUS = Set.of(200, 203, 204, 300, 301, 404, 410);
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final RestResponseCache store;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+
+    HttpCache(RestResponseCache store) {
+        this.store = Objects.requireNonNull(store, "store");
+    }
+
+    /**
+     * Result of a cache lookup: either a fresh entry that can be served as-is, or the request to send
+     * (conditional when a stale entry with validators exists).
+     */
+    record Lookup(HttpRequest request, CachedResponse entry, boolean fresh) {
+    }
+
+    boolean supports(HttpRequest request) {
+        return "GET".equals(request.method()) && !CacheControl.parse(request.headers()).noStore();
+    }
+
+    Lookup lookup(HttpRequest request) {
+        CacheControl requestControl = CacheControl.parse(request.headers());
+        CachedResponse entry = store.get(keyFor(request.uri()))
+                .filter(candidate -> varyMatches(candidate, request))
+                .orElse(null);
+        if (entry != null && !requestControl.noCache() && entry.isFresh(System.currentTimeMillis())) {
+            hits.increment();
+            return new Lookup(request, entry, true);
+        }
+        if (entry != null && entry.hasValidators()) {
+            HttpRequest.Builder conditional = HttpRequest.newBuilder(request, (name, value) -> true);
+            entry.etag().ifPresent(etag -> conditional.setHeader("If-None-Match", etag));
+            entry.lastModified().ifPresent(date -> conditional.setHeader("If-Modified-Since", date));
+            return new Lookup(conditional.build(), entry, false);
+        }
+        misses.increment();
+        return new Lookup(request, null, false);
+    }
+
+    /**
+     * Stores/refreshes the entry for a completed exchange and returns the response to hand to the caller.
+     */
+    RestResponse complete(HttpRequest original, Lookup lookup, HttpResponse<byte[]> response) {
+        long now = System.currentTimeMillis();
+        String key = keyFor(original.uri());
+        if (response.statusCode() == 304 && lookup.entry() != null) {
+            revalidated.increment();
+            CachedResponse previous = lookup.entry();
+            HttpHeaders merged = mergeHeaders(previous.headers(), response.headers());
+            CachedResponse refreshed = new CachedResponse(previous.statusCode(), previous.body(), merged,
+                    previous.uri(), previous.version(), now, now + freshnessMillis(merged, now),
+                    previous.varyValues());
+            store.put(key, refreshed);
+            return toRestResponse(refreshed);
+        }
+        if (lookup.entry() != null) {
+            misses.increment();
+        }
+        if (isStorable(original, response)) {
+            HttpHeaders headers = ContentEncoding.decodedHeaders(response.headers());
+            CachedResponse entry = new CachedResponse(response.statusCode(), response.body(), headers,
+                    response.uri(), response.version(), now, now + freshnessMillis(headers, now),
+                    varyValues(original, headers));
+            store.put(key, entry);
+            stored.increment();
+        } else if (lookup.entry() != null) {
+            store.remove(key);
+        }
+        return RestClient.toRestResponse(response);
+    }
+
+    RestResponse serve(CachedResponse entry) {
+        return toRestResponse(entry);
+    }
+
+    /**
+     * Drops the entry of a URI after a successful unsafe request (POST/PUT/PATCH/DELETE) against it.
+     */
+    void invalidateIfUnsafe(HttpRequest request, int statusCode) {
+        if (!SAFE_METHODS.contains(request.method()) && statusCode >= 200 && statusCode < 400) {
+            store.remove(keyFor(request.uri()));
+        }
+    }
+
+    RestClient.CacheStats stats() {
+        return new RestClient.CacheStats(hits.sum(), misses.sum(), revalidated.sum(), stored.sum());
+    }
+
+    private static String keyFor(URI uri) {
+        return "GET " + uri;
+    }
+
+    private static boolean isStorable(HttpRequest request, HttpResponse<byte[]> response) {
+        if (!CACHEABLE_STATUS.contains(response.statusCode())) return false;
+        if (CacheControl.parse(request.headers()).noStore()) return false;
+        CacheControl control = CacheControl.parse(response.headers());
+        if (control.noStore()) return false;
+        if (response.headers().allValues("Vary").stream().anyMatch(value -> value.contains("*"))) return false;
+        return control.maxAgeSeconds() > 0
+                || control.noCache()
+                || response.headers().firstValue("Expires").isPresent()
+                || response.headers().firstValue("ETag").isPresent()
+                || response.headers().firstValue("Last-Modified").isPresent();
+    }
+
+    private static long freshnessMillis(HttpHeaders headers, long now) {
+        CacheControl control = CacheControl.parse(headers);
+        if (control.noCache()) return 0;
+        long ageMillis = headers.firstValueAsLong("Age").orElse(0L) * 1000L;
+        long lifetime;
+        if (control.maxAgeSeconds() >= 0) {
+            lifetime = control.maxAgeSeconds() * 1000L;
+        } else {
+            long date = parseDate(headers.firstValue("Date")).orElse(now);
+            Optional<Long> expires = parseDate(headers.firstValue("Expires"));
+            if (expires.isPresent()) {
+                lifetime = expires.get() - date;
+            } else {
+                // RFC 9111 heuristic: 10% of the time since the last modification.
+                lifetime = parseDate(headers.firstValue("Last-Modified"))
+                        .map(lastModified -> Math.max(0, date - lastModified) / 10)
+                        .orElse(0L);
+            }
+        }
+        return Math.max(0, lifetime - ageMillis);
+    }
+
+    private static Optional<Long> parseDate(Optional<String> value) {
+        if (value.isEmpty()) return Optional.empty();
+        try {
+            return Optional.of(ZonedDateTime.parse(value.get().trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli());
+        } catch (DateTimeParseException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, String> varyValues(HttpRequest request, HttpHeaders responseHeaders) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String vary : responseHeaders.allValues("Vary")) {
+            for (String name : vary.split(",")) {
+                String header = name.trim().toLowerCase(Locale.ROOT);
+                if (!header.isEmpty()) values.put(header, String.join(",", request.headers().allValues(header)));
+            }
+        }
+        return values;
+    }
+
+    private static boolean varyMatches(CachedResponse entry, HttpRequest request) {
+        for (Map.Entry<String, String> vary : entry.varyValues().entrySet()) {
+            if (!vary.getValue().equals(String.join(",", request.headers().allValues(vary.getKey())))) return false;
+        }
+        return true;
+    }
+
+    private static HttpHeaders mergeHeaders(HttpHeaders cached, HttpHeaders fresh) {
+        Map<String, List<String>> merged = new LinkedHashMap<>(cached.map());
+        fresh.map().forEach((name, values) -> {
+            if (!"content-length".equalsIgnoreCase(name)) {
+                merged.keySet().removeIf(existing -> existing.equalsIgnoreCase(name));
+                merged.put(name, values);
+            }
+        });
+        return HttpHeaders.of(merged, (name, value) -> true);
+    }
+
+    private static RestResponse toRestResponse(CachedResponse entry) {
+        return new RestResponse(entry.statusCode(), new String(entry.body(), StandardCharsets.UTF_8),
+                entry.headers(), entry.uri(), entry.version());
+    }
+
+    /**
+     * The subset of {@code Cache-Control} directives relevant to a private client cache.
+     */
+    private record CacheControl(boolean noStore, boolean noCache, long maxAgeSeconds) {
+        static CacheControl parse(HttpHeaders headers) {
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAge = -1;
+            for (String header : headers.allValues("Cache-Control")) {
+                for (String directive : header.split(",")) {
+                    String token = directive.trim().toLowerCase(Locale.ROOT);
+                    if (token.equals("no-store")) {
+                        noStore = true;
+                    } else if (token.equals("no-cache")) {
+                        noCache = true;
+                    } else if (token.startsWith("max-age=")) {
+                        try {
+                            maxAge = Long.parseLong(token.substring("max-age=".length()).replace("\"", ""));
+                        } catch (NumberFormatException ignored) {
+                            maxAge = 0;
+                        }
+                    }
+                }
+            }
+            if (headers.allValues("Pragma").stream().anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("no-cache"))) {
+                noCache = true;
+            }
+            return new CacheControl(noStore, noCache, maxAge);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+
+/**
+ * Raised by the typed {@link RestClient} helpers when the server answers with a non-2xx status, in which case the
+ * body is not handed to the {@link BodyDecoder}. A bounded prefix of the error body is kept for diagnostics.
+ */
+public final class HttpStatusException extends IOException {
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final URI uri;
+    private final String body;
+
+    public HttpStatusException(int statusCode, HttpHeaders headers, URI uri, String body) {
+        super("HTTP " + statusCode + " from " + uri);
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.uri = uri;
+        this.body = body == null ? "" : body;
+    }
+
+    public int statusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    public String body() {
+        return body;
+    }
+}
@@ -0,0 +1,110 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent log-linear histogram of nanosecond durations in the spirit of HdrHistogram. Every power-of-two range
+ * is split into {@value #SUB_BUCKETS_HALF} linear sub-buckets, giving ~3% relative precision over the full
+ * {@code long} range with a fixed array of counters.
+ * <p>
+ * {@link #record(long)} is lock-free and allocation-free; {@link #snapshot()} copies the counters.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKETS_HALF = SUB_BUCKETS >>> 1;
+    private static final int BUCKET_COUNT = indexOf(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        if (value < min.get()) min.accumulateAndGet(value, Math::min);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    public void record(Duration duration) {
+        record(duration.toNanos());
+    }
+
+    public long count() {
+        return totalCount.sum();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) counts.set(i, 0L);
+        totalCount.reset();
+        totalNanos.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(0L);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        if (total == 0) return Snapshot.EMPTY;
+        long lowest = min.get();
+        long highest = max.get();
+        return new Snapshot(total,
+                Duration.ofNanos(lowest),
+                Duration.ofNanos(highest),
+                Duration.ofNanos(totalNanos.sum() / Math.max(1L, totalCount.sum())),
+                Duration.ofNanos(valueAt(copy, total, 0.50, lowest, highest)),
+                Duration.ofNanos(valueAt(copy, total, 0.90, lowest, highest)),
+                Duration.ofNanos(valueAt(copy, total, 0.99, lowest, highest)),
+                Duration.ofNanos(valueAt(copy, total, 0.999, lowest, highest)));
+    }
+
+    private static long valueAt(long[] counts, long total, double quantile, long lowest, long highest) {
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.max(lowest, Math.min(highest, highestEquivalentValue(i)));
+        }
+        return highest;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * SUB_BUCKETS_HALF + (int) ((value >>> shift) - SUB_BUCKETS_HALF);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS_HALF + 1;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS_HALF + SUB_BUCKETS_HALF;
+        long upper = ((subBucket + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    /**
+     * Point-in-time view of a histogram; percentiles are upper bounds of the matching bucket.
+     */
+    public record Snapshot(long count,
+                           Duration min,
+                           Duration max,
+                           Duration mean,
+                           Duration p50,
+                           Duration p90,
+                           Duration p99,
+                           Duration p999) {
+        static final Snapshot EMPTY = new Snapshot(0, Duration.ZERO, Duration.ZERO, Duration.ZERO,
+                Duration.ZERO, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+    }
+}
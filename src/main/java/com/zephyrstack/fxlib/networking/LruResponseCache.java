@@ -0,0 +1,257 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * {@link RestResponseCache} keeping entries in an access-ordered LRU bounded by total body size, with an optional
+ * write-through disk tier. Entries evicted from memory are still served from disk (and promoted back) until the
+ * disk tier trims its oldest files. Disk failures are treated as cache misses.
+ */
+public final class LruResponseCache implements RestResponseCache {
+    private static final String FILE_SUFFIX = ".entry";
+
+    private final long maxMemoryBytes;
+    private final Path diskDirectory;
+    private final long maxDiskBytes;
+    private final LinkedHashMap<String, CachedResponse> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong diskBytes = new AtomicLong();
+    private long memoryBytes;
+
+    private LruResponseCache(Builder builder) {
+        this.maxMemoryBytes = builder.maxMemoryBytes;
+        this.diskDirectory = builder.diskDirectory;
+        this.maxDiskBytes = builder.maxDiskBytes;
+        if (diskDirectory != null) {
+            try {
+                Files.createDirectories(diskDirectory);
+                diskBytes.set(currentDiskUsage());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to prepare cache directory: " + diskDirectory, ex);
+            }
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public Optional<CachedResponse> get(String key) {
+        Objects.requireNonNull(key, "key");
+        synchronized (memory) {
+            CachedResponse cached = memory.get(key);
+            if (cached != null) return Optional.of(cached);
+        }
+        if (diskDirectory == null) return Optional.empty();
+        CachedResponse fromDisk = readFromDisk(key);
+        if (fromDisk == null) return Optional.empty();
+        putInMemory(key, fromDisk);
+        return Optional.of(fromDisk);
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(response, "response");
+        putInMemory(key, response);
+        if (diskDirectory != null) writeToDisk(key, response);
+    }
+
+    @Override
+    public void remove(String key) {
+        Objects.requireNonNull(key, "key");
+        synchronized (memory) {
+            CachedResponse removed = memory.remove(key);
+            if (removed != null) memoryBytes -= removed.sizeInBytes();
+        }
+        if (diskDirectory != null) deleteFile(fileFor(key));
+    }
+
+    @Override
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+            memoryBytes = 0;
+        }
+        if (diskDirectory != null) {
+            for (Path file : listEntries()) deleteFile(file);
+        }
+    }
+
+    public long memoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    public long diskBytes() {
+        return diskBytes.get();
+    }
+
+    private void putInMemory(String key, CachedResponse response) {
+        long size = response.sizeInBytes();
+        synchronized (memory) {
+            CachedResponse previous = memory.remove(key);
+            if (previous != null) memoryBytes -= previous.sizeInBytes();
+            if (size > maxMemoryBytes) return;
+            memory.put(key, response);
+            memoryBytes += size;
+            Iterator<CachedResponse> eldest = memory.values().iterator();
+            while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().sizeInBytes();
+                eldest.remove();
+            }
+        }
+    }
+
+    private CachedResponse readFromDisk(String key) {
+        Path file = fileFor(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return CachedResponse.readFrom(in);
+        } catch (NoSuchFileException ignored) {
+            return null;
+        } catch (IOException | RuntimeException ex) {
+            deleteFile(file);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedResponse response) {
+        Path target = fileFor(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(diskDirectory, target.getFileName() + ".", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                response.writeTo(out);
+            }
+            long size = Files.size(temp);
+            synchronized (this) {
+                long previousSize = sizeOf(target);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                if (diskBytes.addAndGet(size - previousSize) > maxDiskBytes) trimDisk();
+            }
+        } catch (IOException ex) {
+            if (temp != null) deleteFile(temp);
+        }
+    }
+
+    private synchronized void trimDisk() {
+        if (diskBytes.get() <= maxDiskBytes) return;
+        List<Path> files = listEntries().stream()
+                .sorted(Comparator.comparing(LruResponseCache::lastModified))
+                .toList();
+        long target = maxDiskBytes - maxDiskBytes / 10;
+        for (Path file : files) {
+            if (diskBytes.get() <= target) break;
+            deleteFile(file);
+        }
+    }
+
+    /**
+     * Holds the same lock as {@link #writeToDisk} so the size read here still describes the file being deleted.
+     */
+    private synchronized void deleteFile(Path file) {
+        long size = sizeOf(file);
+        try {
+            if (Files.deleteIfExists(file) && file.getFileName().toString().endsWith(FILE_SUFFIX)) {
+                diskBytes.addAndGet(-size);
+            }
+        } catch (IOException ignored) {
+            // best effort; stale files are trimmed later
+        }
+    }
+
+    private List<Path> listEntries() {
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX)).toList();
+        } catch (IOException ex) {
+            return List.of();
+        }
+    }
+
+    private long currentDiskUsage() {
+        long total = 0;
+        for (Path file : listEntries()) total += sizeOf(file);
+        return total;
+    }
+
+    private Path fileFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return diskDirectory.resolve(HexFormat.of().formatHex(digest) + FILE_SUFFIX);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException ex) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    public static final class Builder {
+        private long maxMemoryBytes = 16L * 1024 * 1024;
+        private Path diskDirectory;
+        private long maxDiskBytes = 256L * 1024 * 1024;
+
+        private Builder() {
+        }
+
+        public Builder maxMemoryBytes(long maxMemoryBytes) {
+            if (maxMemoryBytes <= 0) throw new IllegalArgumentException("maxMemoryBytes must be > 0");
+            this.maxMemoryBytes = maxMemoryBytes;
+            return this;
+        }
+
+        /**
+         * Enables the disk tier under the given directory (created if missing).
+         */
+        public Builder diskDirectory(Path directory) {
+            this.diskDirectory = directory;
+            return this;
+        }
+
+        public Builder maxDiskBytes(long maxDiskBytes) {
+            if (maxDiskBytes <= 0) throw new IllegalArgumentException("maxDiskBytes must be > 0");
+            this.maxDiskBytes = maxDiskBytes;
+            return this;
+        }
+
+        public LruResponseCache build() {
+            return new LruResponseCache(this);
+        }
+    }
+}
@@ -0,0 +1,480 @@
+package com.zephyrstack.fxlib.networking;
+
+import com.zephyrstack.fxlib.concurrent.FxExecutors;
+import com.zephyrstack.fxlib.concurrent.FxFutures;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+/**
+ * Durable outbound queue for mutating requests that must survive connectivity loss and restarts.
+ * <p>
+ * {@link #enqueue(RestRequest)} serializes the request into a memory-mapped append-only journal (see
+ * {@link RequestJournal}) and returns immediately; the write is a memory copy, so it is safe to call from the FX
+ * thread, and the journal is forced to disk in the background shortly after. File and stream bodies are read on
+ * {@link FxExecutors#background()} instead and appended once read, still in enqueue order.
+ * <p>
+ * Requests are replayed strictly in order: the head is sent through {@link RestClient#sendAsync(RestRequest)}, and
+ * on any failure or a retryable status the whole queue waits with the {@link RetryPolicy}'s full-jitter backoff
+ * before trying the head again, so nothing is reordered while the host is unreachable or a local breaker, limiter or
+ * bulkhead turns requests away. Only a definitive outcome acknowledges the entry: a response with a non-retryable
+ * status, or a request that can never be built. Acknowledged entries are compacted out of the journal once they
+ * dominate it.
+ * <p>
+ * Each request gets an {@code Idempotency-Key} header when it has none, so a replay after an ambiguous failure
+ * can be de-duplicated by the server. Entries recovered on startup are replayed as well; their outcome is only
+ * reported through {@link Builder#onDelivered(BiConsumer)}.
+ */
+public final class OfflineRequestQueue implements Closeable {
+    private static final int FORMAT_VERSION = 1;
+    private static final int MIN_COMPACTION_BYTES = 64 * 1024;
+    private static final int MIN_COMPACTION_ACKS = 1024;
+
+    private final RestClient client;
+    private final RequestJournal journal;
+    private final RetryPolicy retryPolicy;
+    private final Duration syncDelay;
+    private final BiConsumer<? super RestRequest, ? super RestResponse> deliveredListener;
+    private final BiConsumer<? super RestRequest, ? super Throwable> failedListener;
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+    private final int recoveredCount;
+    private long nextSequence;
+    private long ackedSinceCompaction;
+    private long delivered;
+    private long failedAttempts;
+    private int attempt;
+    private boolean sending;
+    private ScheduledFuture<?> backoff;
+    private boolean closed;
+    /** Completes once every earlier off-thread enqueue has been appended; keeps the journal in enqueue order. */
+    private CompletableFuture<Void> appendTail = CompletableFuture.completedFuture(null);
+
+    private OfflineRequestQueue(Builder builder) throws IOException {
+        this.client = builder.client;
+        this.retryPolicy = builder.retryPolicy;
+        this.syncDelay = builder.syncDelay;
+        this.deliveredListener = builder.deliveredListener;
+        this.failedListener = builder.failedListener;
+        this.journal = new RequestJournal(builder.directory, builder.initialJournalSize);
+        Set<Long> acked = new HashSet<>();
+        for (RequestJournal.Record record : journal.recovered()) {
+            if (record.type() == RequestJournal.ACK) acked.add(record.sequence());
+            nextSequence = Math.max(nextSequence, record.sequence() + 1);
+        }
+        for (RequestJournal.Record record : journal.recovered()) {
+            if (record.type() == RequestJournal.ENQUEUE && !acked.contains(record.sequence())) {
+                pending.add(new Entry(record.sequence(), decode(record.payload()), record.payload(), null));
+            }
+        }
+        this.recoveredCount = pending.size();
+        this.ackedSinceCompaction = acked.size();
+    }
+
+    public static Builder newBuilder(RestClient client, Path directory) {
+        return new Builder(client, directory);
+    }
+
+    /**
+     * Starts replaying entries recovered from a previous session.
+     */
+    public OfflineRequestQueue start() {
+        pump();
+        return this;
+    }
+
+    /**
+     * Persists the request and schedules it for delivery behind everything already queued.
+     *
+     * @return a future completed with the eventual response, or exceptionally when the request can never be built,
+     * its body cannot be read or persisted off-thread, or the queue was closed first
+     * @throws UncheckedIOException when an in-memory request cannot be written to the journal
+     */
+    public CompletableFuture<RestResponse> enqueue(RestRequest request) {
+        Objects.requireNonNull(request, "request");
+        RestRequest stamped = request.headers().keySet().stream().anyMatch("Idempotency-Key"::equalsIgnoreCase)
+                ? request
+                : request.toBuilder().header("Idempotency-Key", UUID.randomUUID().toString()).build();
+        boolean inMemory = stamped.requestBody().map(RequestBody::isInMemory).orElse(true);
+        CompletableFuture<RestResponse> future = new CompletableFuture<>();
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Queue is closed");
+            if (inMemory && appendTail.isDone()) {
+                try {
+                    persist(stamped, encode(stamped), future);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Unable to persist request", ex);
+                }
+            } else {
+                CompletableFuture<byte[]> payload = inMemory
+                        ? CompletableFuture.completedFuture(encode(stamped))
+                        : FxFutures.supply(() -> encode(stamped));
+                appendTail = appendTail
+                        .thenCompose(ignored -> payload)
+                        .handle((bytes, failure) -> {
+                            appendLater(stamped, bytes, failure, future);
+                            return null;
+                        });
+                return future;
+            }
+        }
+        scheduleSync();
+        pump();
+        return future;
+    }
+
+    /**
+     * Appends an entry whose payload was encoded off the calling thread, or fails its future.
+     */
+    private void appendLater(RestRequest request,
+                             byte[] payload,
+                             Throwable failure,
+                             CompletableFuture<RestResponse> future) {
+        Throwable problem = failure == null ? null : ResilienceInterceptors.unwrap(failure);
+        synchronized (this) {
+            if (problem == null && closed) {
+                problem = new IOException("Offline queue closed before the request was persisted");
+            }
+            if (problem == null) {
+                try {
+                    persist(request, payload, future);
+                } catch (IOException ex) {
+                    problem = ex;
+                }
+            }
+        }
+        if (problem instanceof UncheckedIOException unchecked) problem = unchecked.getCause();
+        if (problem != null) {
+            future.completeExceptionally(problem);
+            return;
+        }
+        scheduleSync();
+        pump();
+    }
+
+    private void persist(RestRequest request, byte[] payload, CompletableFuture<RestResponse> future)
+            throws IOException {
+        long sequence = nextSequence++;
+        journal.append(RequestJournal.ENQUEUE, sequence, payload);
+        pending.add(new Entry(sequence, request, payload, future));
+    }
+
+    /**
+     * Skips the current backoff and tries the head of the queue right away, e.g. when the network comes back.
+     */
+    public void retryNow() {
+        synchronized (this) {
+            if (backoff == null) return;
+            backoff.cancel(false);
+            backoff = null;
+        }
+        pump();
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(pending.size(), recoveredCount, delivered, failedAttempts, attempt, journal.position());
+    }
+
+    /**
+     * Stops replaying and flushes the journal. Undelivered entries stay on disk for the next session; their
+     * futures fail with {@link IOException}.
+     */
+    @Override
+    public void close() throws IOException {
+        List<Entry> abandoned;
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            if (backoff != null) backoff.cancel(false);
+            abandoned = new ArrayList<>(pending);
+            journal.close();
+        }
+        IOException reason = new IOException("Offline queue closed; request kept for the next session");
+        for (Entry entry : abandoned) {
+            if (entry.future != null) entry.future.completeExceptionally(reason);
+        }
+    }
+
+    private void pump() {
+        Entry head;
+        synchronized (this) {
+            if (closed || sending || backoff != null || pending.isEmpty()) return;
+            head = pending.peekFirst();
+            sending = true;
+        }
+        HttpRequest httpRequest;
+        try {
+            httpRequest = client.buildRequest(head.request);
+        } catch (RuntimeException ex) {
+            onResult(head, null, ex, true);
+            return;
+        }
+        CompletableFuture<RestResponse> exchange;
+        try {
+            exchange = client.sendAsync(httpRequest, head.request.priority());
+        } catch (RuntimeException ex) {
+            exchange = CompletableFuture.failedFuture(ex);
+        }
+        exchange.whenComplete((response, throwable) -> onResult(head, response, throwable, false));
+    }
+
+    /**
+     * @param unbuildable the request itself was rejected while being built, so retrying cannot help
+     */
+    private void onResult(Entry head, RestResponse response, Throwable throwable, boolean unbuildable) {
+        Throwable failure = throwable == null ? null : ResilienceInterceptors.unwrap(throwable);
+        // breaker, limiter and bulkhead rejections or interceptor timeouts are as transient as a lost connection
+        boolean retry = failure != null
+                ? !unbuildable
+                : retryPolicy.isRetryableStatus(response.statusCode());
+        synchronized (this) {
+            sending = false;
+            if (closed) return;
+            if (retry) {
+                failedAttempts++;
+                attempt++;
+                backoff = FxExecutors.scheduler().schedule(this::endBackoff,
+                        retryPolicy.backoffMillis(attempt), TimeUnit.MILLISECONDS);
+                return;
+            }
+            attempt = 0;
+            pending.pollFirst();
+            try {
+                journal.append(RequestJournal.ACK, head.sequence, new byte[0]);
+                ackedSinceCompaction++;
+                compactIfWorthwhile();
+            } catch (IOException ex) {
+                // The entry stays in the journal and is replayed once more on the next start.
+            }
+            if (failure == null) delivered++;
+        }
+        scheduleSync();
+        if (failure == null) {
+            if (head.future != null) head.future.complete(response);
+            if (deliveredListener != null) deliveredListener.accept(head.request, response);
+        } else {
+            if (head.future != null) head.future.completeExceptionally(failure);
+            if (failedListener != null) failedListener.accept(head.request, failure);
+        }
+        pump();
+    }
+
+    private void endBackoff() {
+        synchronized (this) {
+            backoff = null;
+        }
+        pump();
+    }
+
+    private void compactIfWorthwhile() throws IOException {
+        boolean drained = pending.isEmpty() && journal.position() > MIN_COMPACTION_BYTES;
+        boolean dominated = ackedSinceCompaction > MIN_COMPACTION_ACKS && ackedSinceCompaction > 2L * pending.size();
+        if (!drained && !dominated) return;
+        List<RequestJournal.Record> live = new ArrayList<>(pending.size());
+        for (Entry entry : pending) {
+            live.add(new RequestJournal.Record(RequestJournal.ENQUEUE, entry.sequence, entry.payload));
+        }
+        journal.compact(live);
+        ackedSinceCompaction = 0;
+    }
+
+    /**
+     * Group commit: many enqueues within {@code syncDelay} share one {@code force()}.
+     */
+    private void scheduleSync() {
+        if (!syncScheduled.compareAndSet(false, true)) return;
+        FxExecutors.scheduler().schedule(() -> {
+            syncScheduled.set(false);
+            synchronized (this) {
+                if (!closed) journal.force();
+            }
+        }, syncDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    static byte[] encode(RestRequest request) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            writeString(out, request.method());
+            writeString(out, request.pathOrUrl());
+            writeMap(out, request.headers());
+            writeMap(out, request.queryParams());
+            out.writeLong(request.timeout().map(Duration::toMillis).orElse(-1L));
+            out.writeByte(request.priority().ordinal());
+            RequestBody body = request.requestBody().orElse(null);
+            if (body == null) {
+                out.writeInt(-1);
+            } else {
+                byte[] content = body.toByteArray();
+                writeString(out, request.contentType().orElse(RestClient.defaultContentType(body)));
+                out.writeInt(content.length);
+                out.write(content);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to serialize request", ex);
+        }
+    }
+
+    static RestRequest decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int version = in.readUnsignedByte();
+        if (version != FORMAT_VERSION) throw new IOException("Unsupported journal entry version " + version);
+        RestRequest.Builder builder = RestRequest.builder(readString(in), readString(in));
+        builder.headers(readMap(in));
+        builder.queryParams(readMap(in));
+        long timeout = in.readLong();
+        if (timeout >= 0) builder.timeout(Duration.ofMillis(timeout));
+        builder.priority(RestRequest.Priority.values()[in.readUnsignedByte()]);
+        String contentType = readString(in);
+        if (contentType != null) {
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            builder.body(RequestBody.ofBytes(content), contentType);
+        }
+        return builder.build();
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) map.put(readString(in), readString(in));
+        return map;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Entry(long sequence, RestRequest request, byte[] payload, CompletableFuture<RestResponse> future) {
+    }
+
+    /**
+     * Snapshot of the queue.
+     *
+     * @param pending        entries waiting for delivery
+     * @param recovered      entries recovered from the journal on startup
+     * @param delivered      entries acknowledged by a response
+     * @param failedAttempts delivery attempts that failed and were retried
+     * @param currentAttempt consecutive failed attempts for the current head
+     * @param journalBytes   bytes used in the active journal file
+     */
+    public record Stats(int pending,
+                        int recovered,
+                        long delivered,
+                        long failedAttempts,
+                        int currentAttempt,
+                        int journalBytes) {
+    }
+
+    public static final class Builder {
+        private final RestClient client;
+        private final Path directory;
+        private RetryPolicy retryPolicy = RetryPolicy.newBuilder()
+                .initialDelay(Duration.ofSeconds(1))
+                .maxDelay(Duration.ofMinutes(2))
+                .build();
+        private Duration syncDelay = Duration.ofMillis(50);
+        private int initialJournalSize = 1024 * 1024;
+        private BiConsumer<? super RestRequest, ? super RestResponse> deliveredListener;
+        private BiConsumer<? super RestRequest, ? super Throwable> failedListener;
+
+        private Builder(RestClient client, Path directory) {
+            this.client = Objects.requireNonNull(client, "client");
+            this.directory = Objects.requireNonNull(directory, "directory");
+        }
+
+        /**
+         * Backoff and retryable statuses used while the head cannot be delivered; {@code maxAttempts} is ignored
+         * because queued requests are retried until they are delivered.
+         */
+        public Builder retryPolicy(RetryPolicy policy) {
+            this.retryPolicy = Objects.requireNonNull(policy, "policy");
+            return this;
+        }
+
+        /**
+         * How long appended entries may stay in the page cache before the journal is forced to disk.
+         */
+        public Builder syncDelay(Duration delay) {
+            this.syncDelay = Objects.requireNonNull(delay, "delay");
+            return this;
+        }
+
+        public Builder initialJournalSize(int bytes) {
+            if (bytes < 4096) throw new IllegalArgumentException("bytes must be >= 4096");
+            this.initialJournalSize = bytes;
+            return this;
+        }
+
+        /**
+         * Called for every acknowledged entry, including ones recovered from a previous session.
+         */
+        public Builder onDelivered(BiConsumer<? super RestRequest, ? super RestResponse> listener) {
+            this.deliveredListener = listener;
+            return this;
+        }
+
+        /**
+         * Called for entries dropped because the request can never be built, e.g. its URI is invalid.
+         */
+        public Builder onFailed(BiConsumer<? super RestRequest, ? super Throwable> listener) {
+            this.failedListener = listener;
+            return this;
+        }
+
+        /**
+         * Opens (or recovers) the journal in the configured directory.
+         */
+        public OfflineRequestQueue build() throws IOException {
+            return new OfflineRequestQueue(this);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Request payload of a {@link RestRequest}. The encoded form is computed once per body and the resulting
+ * {@link HttpRequest.BodyPublisher} is reused for every send of the request (including retries), so a
+ * {@code String} is encoded a single time and byte arrays or buffers are never copied.
+ * <p>
+ * File and stream bodies are read lazily on every send: files through a {@code FileChannel}, streams by
+ * calling the supplier again, so the supplier must be able to provide a fresh stream each time.
+ */
+public final class RequestBody {
+    private final String text;
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+    private final Path file;
+    private final Supplier<? extends InputStream> streamSupplier;
+
+    private volatile HttpRequest.BodyPublisher publisher;
+    private volatile byte[] gzipped;
+
+    private RequestBody(String text, byte[] bytes, int offset, int length,
+                        Path file, Supplier<? extends InputStream> streamSupplier) {
+        this.text = text;
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.file = file;
+        this.streamSupplier = streamSupplier;
+    }
+
+    public static RequestBody ofString(String content) {
+        return ofString(content, StandardCharsets.UTF_8);
+    }
+
+    public static RequestBody ofString(String content, Charset charset) {
+        Objects.requireNonNull(content, "content");
+        Objects.requireNonNull(charset, "charset");
+        byte[] encoded = content.getBytes(charset);
+        return new RequestBody(content, encoded, 0, encoded.length, null, null);
+    }
+
+    /**
+     * Wraps the array without copying; the caller must not modify it while the request is in use.
+     */
+    public static RequestBody ofBytes(byte[] content) {
+        Objects.requireNonNull(content, "content");
+        return new RequestBody(null, content, 0, content.length, null, null);
+    }
+
+    /**
+     * Uses the remaining bytes of the buffer. Heap buffers are wrapped without copying; direct buffers are copied
+     * once. The buffer's position is not modified.
+     */
+    public static RequestBody ofByteBuffer(ByteBuffer content) {
+        Objects.requireNonNull(content, "content");
+        if (content.hasArray()) {
+            return new RequestBody(null, content.array(), content.arrayOffset() + content.position(),
+                    content.remaining(), null, null);
+        }
+        byte[] copy = new byte[content.remaining()];
+        content.duplicate().get(copy);
+        return new RequestBody(null, copy, 0, copy.length, null, null);
+    }
+
+    public static RequestBody ofFile(Path file) {
+        Objects.requireNonNull(file, "file");
+        return new RequestBody(null, null, 0, -1, file, null);
+    }
+
+    public static RequestBody ofInputStream(Supplier<? extends InputStream> streamSupplier) {
+        Objects.requireNonNull(streamSupplier, "streamSupplier");
+        return new RequestBody(null, null, 0, -1, null, streamSupplier);
+    }
+
+    /**
+     * The original text if the body was created from a {@code String}.
+     */
+    public Optional<String> text() {
+        return Optional.ofNullable(text);
+    }
+
+    /**
+     * Number of bytes that will be sent, or {@code -1} when unknown (stream bodies, unreadable files).
+     */
+    public long contentLength() {
+        if (bytes != null) return length;
+        if (file != null) {
+            try {
+                return Files.size(file);
+            } catch (IOException ex) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Whether the content is held in memory (string, array or buffer bodies).
+     */
+    public boolean isInMemory() {
+        return bytes != null;
+    }
+
+    /**
+     * Reads the full content into an array. In-memory bodies return a copy of their bytes.
+     */
+    public byte[] toByteArray() throws IOException {
+        if (bytes != null) {
+            byte[] copy = new byte[length];
+            System.arraycopy(bytes, offset, copy, 0, length);
+            return copy;
+        }
+        if (file != null) return Files.readAllBytes(file);
+        try (InputStream in = streamSupplier.get()) {
+            return in.readAllBytes();
+        }
+    }
+
+    HttpRequest.BodyPublisher publisher() {
+        HttpRequest.BodyPublisher current = publisher;
+        if (current == null) {
+            current = createPublisher();
+            publisher = current;
+        }
+        return current;
+    }
+
+    /**
+     * Gzip-compressed form of an in-memory body, computed on first use and cached.
+     */
+    byte[] gzipped() {
+        if (bytes == null) throw new IllegalStateException("Only in-memory bodies can be compressed");
+        byte[] current = gzipped;
+        if (current == null) {
+            current = ContentEncoding.gzip(bytes, offset, length);
+            gzipped = current;
+        }
+        return current;
+    }
+
+    private HttpRequest.BodyPublisher createPublisher() {
+        if (bytes != null) return HttpRequest.BodyPublishers.ofByteArray(bytes, offset, length);
+        if (file != null) {
+            try {
+                return HttpRequest.BodyPublishers.ofFile(file);
+            } catch (FileNotFoundException ex) {
+                throw new UncheckedIOException("Request body file not found: " + file, ex);
+            }
+        }
+        return HttpRequest.BodyPublishers.ofInputStream(streamSupplier);
+    }
+
+    @Override
+    public String toString() {
+        if (text != null) return "RequestBody{text, " + length + " bytes}";
+        if (bytes != null) return "RequestBody{bytes, " + length + " bytes}";
+        if (file != null) return "RequestBody{file=" + file + '}';
+        return "RequestBody{stream}";
+    }
+}
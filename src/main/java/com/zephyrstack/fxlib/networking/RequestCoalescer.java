@@ -0,0 +1,126 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer used by {@link RestClient}: concurrent identical safe requests (same method, resolved URI,
+ * credential headers and selected header values) share one in-flight exchange instead of each hitting the network.
+ * <p>
+ * Every caller receives its own dependent future. Cancelling one caller leaves the shared exchange running for the
+ * others; only when every caller has cancelled is the exchange itself cancelled, and a later identical request then
+ * starts a fresh one.
+ */
+final class RequestCoalescer {
+    private static final Set<String> COALESCIBLE_METHODS = Set.of("GET", "HEAD");
+    /**
+     * Always part of the key, so callers with different credentials never share a response.
+     */
+    private static final List<String> CREDENTIAL_HEADERS = List.of("Authorization", "Proxy-Authorization", "Cookie");
+
+    private final List<String> keyHeaders;
+    private final ConcurrentHashMap<Key, Flight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    RequestCoalescer(List<String> keyHeaders) {
+        List<String> headers = new ArrayList<>(CREDENTIAL_HEADERS);
+        for (String header : keyHeaders) {
+            if (headers.stream().noneMatch(header::equalsIgnoreCase)) headers.add(header);
+        }
+        this.keyHeaders = List.copyOf(headers);
+    }
+
+    boolean supports(HttpRequest request) {
+        return COALESCIBLE_METHODS.contains(request.method());
+    }
+
+    CompletableFuture<RestResponse> execute(HttpRequest request, Supplier<CompletableFuture<RestResponse>> call) {
+        Key key = keyFor(request);
+        Flight flight = new Flight();
+        while (true) {
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) break;
+            if (existing.join()) {
+                coalesced.increment();
+                return follow(key, existing);
+            }
+            inFlight.remove(key, existing);
+        }
+
+        executed.increment();
+        try {
+            CompletableFuture<RestResponse> exchange = call.get();
+            flight.exchange = exchange;
+            exchange.whenComplete((response, throwable) -> {
+                inFlight.remove(key, flight);
+                if (throwable != null) flight.shared.completeExceptionally(throwable);
+                else flight.shared.complete(response);
+            });
+        } catch (RuntimeException ex) {
+            inFlight.remove(key, flight);
+            flight.shared.completeExceptionally(ex);
+        }
+        return follow(key, flight);
+    }
+
+    private CompletableFuture<RestResponse> follow(Key key, Flight flight) {
+        CompletableFuture<RestResponse> caller = flight.shared.thenApply(response -> response);
+        caller.whenComplete((response, throwable) -> {
+            if (caller.isCancelled() && flight.leave()) {
+                inFlight.remove(key, flight);
+                CompletableFuture<RestResponse> exchange = flight.exchange;
+                if (exchange != null) exchange.cancel(true);
+            }
+        });
+        return caller;
+    }
+
+    RestClient.CoalescingStats stats() {
+        return new RestClient.CoalescingStats(executed.sum(), coalesced.sum(), inFlight.size());
+    }
+
+    private Key keyFor(HttpRequest request) {
+        String[] values = new String[keyHeaders.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = String.join(",", request.headers().allValues(keyHeaders.get(i)));
+        }
+        return new Key(request.method(), request.uri(), List.of(values));
+    }
+
+    /**
+     * One shared exchange and the number of callers still waiting on it. Starts with the leader counted; once the
+     * count drops to zero the flight is abandoned and refuses new joiners.
+     */
+    private static final class Flight {
+        private final CompletableFuture<RestResponse> shared = new CompletableFuture<>();
+        private volatile CompletableFuture<RestResponse> exchange;
+        private int interest = 1;
+
+        private synchronized boolean join() {
+            if (interest == 0) return false;
+            interest++;
+            return true;
+        }
+
+        private synchronized boolean leave() {
+            return interest > 0 && --interest == 0;
+        }
+    }
+
+    private record Key(String method, URI uri, List<String> headerValues) {
+        private Key {
+            Objects.requireNonNull(method, "method");
+            Objects.requireNonNull(uri, "uri");
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal backing {@link OfflineRequestQueue}.
+ * <p>
+ * Two files, {@code journal-a} and {@code journal-b}, take turns being active. Each starts with a header holding a
+ * generation number; every record carries a CRC over the generation and its content, so stale records left behind
+ * by an older generation, or a torn record at the tail after a crash, stop recovery instead of being replayed.
+ * Compaction writes the live records into the inactive file, forces it and only then publishes its header with
+ * the next generation, so a crash at any point leaves one complete journal. Files are never renamed or deleted,
+ * which keeps compaction working on platforms that refuse to touch mapped files.
+ * <p>
+ * Record layout: {@code int payloadLength, byte type, long sequence, payload, int crc}. Not thread-safe; the queue
+ * serializes access.
+ */
+final class RequestJournal implements Closeable {
+    static final byte ENQUEUE = 1;
+    static final byte ACK = 2;
+
+    private static final int MAGIC = 0x5A52514A;
+    private static final int HEADER_SIZE = 4 + 8 + 4;
+    private static final int RECORD_OVERHEAD = 4 + 1 + 8 + 4;
+    private static final String[] FILE_NAMES = {"journal-a", "journal-b"};
+
+    private final FileChannel[] channels = new FileChannel[2];
+    private final int initialSize;
+    private final List<Record> recovered;
+    private int active;
+    private long generation;
+    private MappedByteBuffer buffer;
+    private int position;
+
+    record Record(byte type, long sequence, byte[] payload) {
+        int size() {
+            return RECORD_OVERHEAD + payload.length;
+        }
+    }
+
+    RequestJournal(Path directory, int initialSize) throws IOException {
+        this.initialSize = initialSize;
+        Files.createDirectories(directory);
+        long[] generations = new long[2];
+        for (int i = 0; i < 2; i++) {
+            channels[i] = FileChannel.open(directory.resolve(FILE_NAMES[i]),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            generations[i] = readHeader(channels[i]);
+        }
+        if (generations[0] <= 0 && generations[1] <= 0) {
+            active = 0;
+            generation = 1;
+            writeHeader(channels[0], generation);
+        } else {
+            active = generations[0] >= generations[1] ? 0 : 1;
+            generation = generations[active];
+        }
+        long existing = Math.min(Integer.MAX_VALUE, channels[active].size());
+        buffer = map(channels[active], (int) Math.max(initialSize, existing));
+        recovered = scan();
+    }
+
+    /**
+     * Records found on open, in append order, up to the first invalid one.
+     */
+    List<Record> recovered() {
+        return recovered;
+    }
+
+    int position() {
+        return position;
+    }
+
+    void append(byte type, long sequence, byte[] payload) throws IOException {
+        int size = RECORD_OVERHEAD + payload.length;
+        if (position + size > buffer.capacity()) {
+            long grown = Math.max((long) buffer.capacity() * 2, (long) position + size);
+            if (grown > Integer.MAX_VALUE) throw new IOException("Journal exceeds 2 GiB");
+            buffer = map(channels[active], (int) grown);
+        }
+        write(buffer, position, generation, new Record(type, sequence, payload));
+        position += size;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Rewrites the journal so it holds exactly {@code live}.
+     */
+    void compact(List<Record> live) throws IOException {
+        int target = 1 - active;
+        long nextGeneration = generation + 1;
+        long needed = HEADER_SIZE;
+        for (Record record : live) needed += record.size();
+        if (needed > Integer.MAX_VALUE / 2) throw new IOException("Journal exceeds 1 GiB of live records");
+        MappedByteBuffer next = map(channels[target], (int) Math.max(initialSize, needed * 2));
+        int offset = HEADER_SIZE;
+        for (Record record : live) {
+            write(next, offset, nextGeneration, record);
+            offset += record.size();
+        }
+        next.force();
+        writeHeader(channels[target], nextGeneration);
+        active = target;
+        generation = nextGeneration;
+        buffer = next;
+        position = offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        for (FileChannel channel : channels) channel.close();
+    }
+
+    private List<Record> scan() {
+        List<Record> records = new ArrayList<>();
+        int offset = HEADER_SIZE;
+        int limit = buffer.capacity();
+        while (offset + RECORD_OVERHEAD <= limit) {
+            int length = buffer.getInt(offset);
+            if (length < 0 || (long) offset + RECORD_OVERHEAD + length > limit) break;
+            byte type = buffer.get(offset + 4);
+            if (type != ENQUEUE && type != ACK) break;
+            long sequence = buffer.getLong(offset + 5);
+            byte[] payload = new byte[length];
+            buffer.get(offset + 13, payload);
+            if (buffer.getInt(offset + 13 + length) != checksum(generation, type, sequence, payload)) break;
+            records.add(new Record(type, sequence, payload));
+            offset += RECORD_OVERHEAD + length;
+        }
+        position = offset;
+        return records;
+    }
+
+    private static void write(MappedByteBuffer target, int offset, long generation, Record record) {
+        byte[] payload = record.payload();
+        target.putInt(offset, payload.length);
+        target.put(offset + 4, record.type());
+        target.putLong(offset + 5, record.sequence());
+        target.put(offset + 13, payload);
+        target.putInt(offset + 13 + payload.length, checksum(generation, record.type(), record.sequence(), payload));
+    }
+
+    private static int checksum(long generation, byte type, long sequence, byte[] payload) {
+        ByteBuffer prefix = ByteBuffer.allocate(17).putLong(generation).put(type).putLong(sequence).flip();
+        CRC32C crc = new CRC32C();
+        crc.update(prefix);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static long readHeader(FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_SIZE) return 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // keep reading until the header is complete
+        }
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) return 0;
+        long generation = header.getLong(4);
+        return header.getInt(12) == headerChecksum(generation) ? generation : 0;
+    }
+
+    private static void writeHeader(FileChannel channel, long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC).putLong(generation).putInt(headerChecksum(generation)).flip();
+        while (header.hasRemaining()) channel.write(header, header.position());
+        channel.force(true);
+    }
+
+    private static int headerChecksum(long generation) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(12).putInt(MAGIC).putLong(generation).flip());
+        return (int) crc.getValue();
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, int size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+}
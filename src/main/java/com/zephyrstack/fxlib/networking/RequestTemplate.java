@@ -0,0 +1,206 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pre-compiled request for a hot route, created by {@link RestClient#template(String)}. The path is split into
+ * literal chunks around its {@code {name}} placeholders once, with base URI, query parameters and the merged
+ * headers already applied; a call only percent-encodes the variables, concatenates the chunks and copies the
+ * prepared {@link HttpRequest.Builder}.
+ * <p>
+ * Variables are bound positionally in the order their placeholders appear. Instances are immutable and
+ * thread-safe.
+ */
+public final class RequestTemplate {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final RestClient client;
+    private final String method;
+    private final String[] literals;
+    private final List<String> variables;
+    private final HttpRequest.Builder prototype;
+    private final RequestBody defaultBody;
+    private final String contentType;
+    private final boolean hasContentType;
+    private final boolean hasContentEncoding;
+    private final RestRequest.Priority priority;
+    private final int sizeHint;
+
+    RequestTemplate(RestClient client,
+                    RestRequest request,
+                    String resolvedUri,
+                    List<String> variables,
+                    HttpRequest.Builder prototype,
+                    boolean hasContentType,
+                    boolean hasContentEncoding) {
+        this.client = client;
+        this.method = request.method();
+        this.variables = List.copyOf(variables);
+        this.literals = split(resolvedUri, variables.size());
+        this.prototype = prototype;
+        this.defaultBody = request.requestBody().orElse(null);
+        this.contentType = request.contentType().orElse(null);
+        this.hasContentType = hasContentType;
+        this.hasContentEncoding = hasContentEncoding;
+        this.priority = request.priority();
+        this.sizeHint = resolvedUri.length() + 16 * variables.size();
+    }
+
+    /**
+     * Placeholder names in binding order.
+     */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /**
+     * Expands the template into an absolute URI.
+     *
+     * @throws IllegalArgumentException when the number of values does not match the placeholders
+     */
+    public URI expand(Object... pathVariables) {
+        return URI.create(expandToString(pathVariables));
+    }
+
+    public RestResponse send(Object... pathVariables) throws IOException, InterruptedException {
+        return client.send(toHttpRequest(defaultBody, pathVariables), priority);
+    }
+
+    public CompletableFuture<RestResponse> sendAsync(Object... pathVariables) {
+        HttpRequest request;
+        try {
+            request = toHttpRequest(defaultBody, pathVariables);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return client.sendAsync(request, priority);
+    }
+
+    /**
+     * Sends with a call-specific body, e.g. for a {@code PUT /orders/{id}} template.
+     */
+    public RestResponse send(RequestBody body, Object... pathVariables) throws IOException, InterruptedException {
+        return client.send(toHttpRequest(Objects.requireNonNull(body, "body"), pathVariables), priority);
+    }
+
+    public CompletableFuture<RestResponse> sendAsync(RequestBody body, Object... pathVariables) {
+        Objects.requireNonNull(body, "body");
+        HttpRequest request;
+        try {
+            request = toHttpRequest(body, pathVariables);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        return client.sendAsync(request, priority);
+    }
+
+    HttpRequest toHttpRequest(RequestBody body, Object[] pathVariables) {
+        HttpRequest.Builder builder = prototype.copy().uri(URI.create(expandToString(pathVariables)));
+        if (body == null) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        if (client.shouldCompress(body) && !hasContentEncoding) {
+            builder.method(method, HttpRequest.BodyPublishers.ofByteArray(body.gzipped()));
+            builder.header("Content-Encoding", "gzip");
+        } else {
+            builder.method(method, body.publisher());
+        }
+        if (!hasContentType) {
+            builder.header("Content-Type", contentType != null ? contentType : RestClient.defaultContentType(body));
+        }
+        return builder.build();
+    }
+
+    private String expandToString(Object[] pathVariables) {
+        int count = pathVariables == null ? 0 : pathVariables.length;
+        if (count != variables.size()) {
+            throw new IllegalArgumentException("Expected " + variables.size() + " path variables " + variables
+                    + " but got " + count);
+        }
+        if (count == 0) return literals[0];
+        StringBuilder uri = new StringBuilder(sizeHint).append(literals[0]);
+        for (int i = 0; i < count; i++) {
+            appendEncoded(uri, String.valueOf(Objects.requireNonNull(pathVariables[i], variables.get(i))));
+            uri.append(literals[i + 1]);
+        }
+        return uri.toString();
+    }
+
+    /**
+     * Percent-encodes everything but RFC 3986 unreserved characters, so a value always stays one path segment.
+     */
+    private static void appendEncoded(StringBuilder target, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isUnreserved(value.charAt(i))) {
+                for (byte b : value.substring(i).getBytes(StandardCharsets.UTF_8)) {
+                    char c = (char) (b & 0xFF);
+                    if (isUnreserved(c)) {
+                        target.append(c);
+                    } else {
+                        target.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+                    }
+                }
+                return;
+            }
+            target.append(value.charAt(i));
+        }
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    /**
+     * Replaces each {@code {name}} placeholder with an encoded marker that survives URI resolution and collects the
+     * names in order.
+     */
+    static String markVariables(String template, List<String> names) {
+        StringBuilder marked = new StringBuilder(template.length());
+        int index = 0;
+        while (index < template.length()) {
+            int open = template.indexOf('{', index);
+            if (open < 0) {
+                marked.append(template, index, template.length());
+                break;
+            }
+            int close = template.indexOf('}', open);
+            if (close < 0) throw new IllegalArgumentException("Unclosed placeholder in template: " + template);
+            String name = template.substring(open + 1, close).trim();
+            if (name.isEmpty()) throw new IllegalArgumentException("Empty placeholder in template: " + template);
+            marked.append(template, index, open).append(marker(names.size()));
+            names.add(name);
+            index = close + 1;
+        }
+        return marked.toString();
+    }
+
+    private static String marker(int index) {
+        return "%7B" + index + "%7D";
+    }
+
+    private static String[] split(String resolved, int count) {
+        String[] parts = new String[count + 1];
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            String marker = marker(i);
+            int at = resolved.indexOf(marker, from);
+            if (at < 0) throw new IllegalArgumentException("Placeholder lost while resolving: " + resolved);
+            parts[i] = resolved.substring(from, at);
+            from = at + marker.length();
+        }
+        parts[count] = resolved.substring(from);
+        return parts;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestTemplate{" + method + ' ' + String.join("{}", literals) + '}';
+    }
+}
@@ -0,0 +1,268 @@
+package com.zephyrstack.fxlib.networking;
+
+import com.zephyrstack.fxlib.concurrent.CircuitBreaker;
+import com.zephyrstack.fxlib.concurrent.CircuitBreakerOpenException;
+import com.zephyrstack.fxlib.concurrent.FxExecutors;
+import com.zephyrstack.fxlib.concurrent.FxFutures;
+import com.zephyrstack.fxlib.concurrent.RateLimiter;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * {@link RestInterceptor}s that plug the {@code com.zephyrstack.fxlib.concurrent} resilience primitives into
+ * {@link RestClient}. All of them are fully asynchronous: waiting (backoff, rate limit) is done with delayed tasks on
+ * {@link FxExecutors#scheduler()}, never by parking a thread.
+ * <p>
+ * Recommended registration order (outermost first): {@link #retry(RetryPolicy)}, then
+ * {@link #circuitBreakerPerHost(Supplier)}, then {@link #rateLimit(RateLimiter)}, so every attempt is accounted
+ * for by the breaker and the limiter, and an open breaker is not retried.
+ */
+public final class ResilienceInterceptors {
+    private ResilienceInterceptors() {
+    }
+
+    /**
+     * Retries failed attempts according to {@code policy}.
+     */
+    public static RestInterceptor retry(RetryPolicy policy) {
+        return new RetryInterceptor(Objects.requireNonNull(policy, "policy"));
+    }
+
+    /**
+     * One breaker per {@code scheme://authority}, created lazily from {@code factory}. I/O failures and 5xx
+     * statuses count as failures.
+     */
+    public static RestInterceptor circuitBreakerPerHost(Supplier<CircuitBreaker> factory) {
+        return circuitBreakerPerHost(factory, status -> status >= 500);
+    }
+
+    public static RestInterceptor circuitBreakerPerHost(Supplier<CircuitBreaker> factory, IntPredicate failureStatus) {
+        Objects.requireNonNull(factory, "factory");
+        Objects.requireNonNull(failureStatus, "failureStatus");
+        ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+        return new RestInterceptor() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> intercept(HttpRequest request, Chain<T> chain) {
+                String host = ConcurrencyLimiter.hostKey(request.uri());
+                CircuitBreaker breaker = breakers.computeIfAbsent(host, ignored -> factory.get());
+                return guard(breaker, failureStatus, host, request, chain);
+            }
+        };
+    }
+
+    /**
+     * A single breaker shared by every request of the client.
+     */
+    public static RestInterceptor circuitBreaker(CircuitBreaker breaker) {
+        Objects.requireNonNull(breaker, "breaker");
+        return new RestInterceptor() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> intercept(HttpRequest request, Chain<T> chain) {
+                return guard(breaker, status -> status >= 500, ConcurrencyLimiter.hostKey(request.uri()), request, chain);
+            }
+        };
+    }
+
+    /**
+     * Delays requests until {@code limiter} hands out a permit, waiting on the scheduler instead of blocking.
+     */
+    public static RestInterceptor rateLimit(RateLimiter limiter) {
+        Objects.requireNonNull(limiter, "limiter");
+        return new RestInterceptor() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> intercept(HttpRequest request, Chain<T> chain) {
+                CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+                CompletableFuture<Void> permit = limiter.acquireAsync();
+                FxFutures.propagateCancellation(result, permit);
+                permit.whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        result.completeExceptionally(failure);
+                    } else if (!result.isDone()) {
+                        relay(proceed(chain, request), result);
+                    }
+                });
+                return result;
+            }
+        };
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> guard(CircuitBreaker breaker,
+                                                               IntPredicate failureStatus,
+                                                               String host,
+                                                               HttpRequest request,
+                                                               RestInterceptor.Chain<T> chain) {
+        CircuitBreaker.Permit permit = breaker.tryAcquirePermit();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(new CircuitBreakerOpenException("Circuit breaker is open for " + host));
+        }
+        CompletableFuture<HttpResponse<T>> call;
+        try {
+            call = chain.proceed(request);
+        } catch (RuntimeException ex) {
+            permit.recordFailure();
+            return CompletableFuture.failedFuture(ex);
+        } catch (Error error) {
+            permit.recordFailure();
+            throw error;
+        }
+        return FxFutures.propagateCancellation(call.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                if (unwrap(throwable) instanceof CancellationException) permit.release();
+                else permit.recordFailure();
+            } else if (failureStatus.test(response.statusCode())) {
+                permit.recordFailure();
+            } else {
+                permit.recordSuccess();
+            }
+        }), call);
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> proceed(RestInterceptor.Chain<T> chain, HttpRequest request) {
+        try {
+            return chain.proceed(request);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Completes {@code target} with the outcome of {@code source}, and cancels {@code source} if {@code target} is
+     * cancelled first.
+     */
+    private static <T> void relay(CompletableFuture<T> source, CompletableFuture<T> target) {
+        FxFutures.propagateCancellation(target, source);
+        source.whenComplete((value, throwable) -> {
+            if (throwable != null) target.completeExceptionally(throwable);
+            else target.complete(value);
+        });
+    }
+
+    private static void schedule(Runnable task, long delayMillis, CompletableFuture<?> owner) {
+        try {
+            FxExecutors.scheduler().schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            owner.completeExceptionally(ex);
+        }
+    }
+
+    static Throwable unwrap(Throwable throwable) {
+        Throwable current = throwable;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Parses {@code Retry-After} given either as delta seconds or as an HTTP date.
+     */
+    static Optional<Long> retryAfterMillis(HttpHeaders headers) {
+        Optional<String> value = headers.firstValue("Retry-After").map(String::trim);
+        if (value.isEmpty()) return Optional.empty();
+        try {
+            return Optional.of(Math.max(0, Long.parseLong(value.get()) * 1000L));
+        } catch (NumberFormatException ignored) {
+            try {
+                long at = ZonedDateTime.parse(value.get(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Optional.of(Math.max(0, at - System.currentTimeMillis()));
+            } catch (DateTimeParseException ex) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Releases the connection held by a response that is dropped in favour of a retry.
+     */
+    static void discard(HttpResponse<?> response) {
+        Object body = response.body();
+        if (body instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // nothing left to release
+            }
+        } else if (body instanceof Flow.Publisher<?> publisher) {
+            publisher.subscribe(new Flow.Subscriber<Object>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.cancel();
+                }
+
+                @Override
+                public void onNext(Object item) {
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+        }
+    }
+
+    private record RetryInterceptor(RetryPolicy policy) implements RestInterceptor {
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> intercept(HttpRequest request, Chain<T> chain) {
+            if (policy.maxAttempts() == 1 || !policy.isRetryable(request)) return chain.proceed(request);
+            CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+            attempt(request, chain, 1, result);
+            return result;
+        }
+
+        private <T> void attempt(HttpRequest request,
+                                 Chain<T> chain,
+                                 int attempt,
+                                 CompletableFuture<HttpResponse<T>> result) {
+            if (result.isDone()) return;
+            CompletableFuture<HttpResponse<T>> call = proceed(chain, request);
+            FxFutures.propagateCancellation(result, call);
+            call.whenComplete((response, throwable) -> {
+                if (result.isDone()) {
+                    if (response != null) discard(response);
+                    return;
+                }
+                boolean attemptsLeft = attempt < policy.maxAttempts();
+                if (throwable == null) {
+                    if (attemptsLeft && policy.isRetryableStatus(response.statusCode())) {
+                        long delay = retryAfterMillis(response.headers()).orElseGet(() -> policy.backoffMillis(attempt));
+                        if (delay <= policy.maxDelay().toMillis()) {
+                            discard(response);
+                            schedule(() -> attempt(request, chain, attempt + 1, result), delay, result);
+                            return;
+                        }
+                    }
+                    result.complete(response);
+                    return;
+                }
+                Throwable cause = unwrap(throwable);
+                if (attemptsLeft && policy.isRetryableFailure(cause)) {
+                    schedule(() -> attempt(request, chain, attempt + 1, result), policy.backoffMillis(attempt), result);
+                } else {
+                    result.completeExceptionally(cause);
+                }
+            });
+        }
+    }
+}
@@ -1,26 +1,59 @@
 package com.zephyrstack.fxlib.networking;
 
+import com.zephyrstack.fxlib.concurrent.FxFutures;
+
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.stream.BaseStream;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Lightweight wrapper around {@link java.net.http.HttpClient} that takes care of base URLs,
  * default headers, query parameters and multi-method convenience helpers.
+ * <p>
+ * {@link #send(RestRequest)} buffers the whole body into a {@link RestResponse}; the {@code sendFor*},
+ * {@code download} and {@code stream} helpers return a {@link StreamingRestResponse} instead so large payloads
+ * can be processed while they arrive. Buffered calls can optionally be coalesced and cached, see
+ * {@link Builder#coalesceRequests(String...)} and {@link Builder#responseCache(RestResponseCache)}.
+ * gzip/deflate response bodies are decoded transparently on every path. Typed results are produced by
+ * {@link BodyDecoder}s or a pluggable {@link BodyCodec} reading straight from the byte stream.
  */
 public final class RestClient {
+    private static final HttpResponse.BodyHandler<byte[]> BUFFERED_BODY =
+            ContentEncoding.decoding(HttpResponse.BodyHandlers.ofByteArray());
+    private static final int ERROR_BODY_LIMIT = 64 * 1024;
+    private static final int DEFAULT_BATCH_WINDOW = 32;
+    private static final Executor VIRTUAL_THREAD_EXECUTOR =
+            command -> Thread.ofVirtual().name("rest-decoder").start(command);
+
     @Override
     public String toString() {
         return "RestClient{" +
@@ -35,6 +68,15 @@ public final class RestClient {
     private final URI baseUri;
     private final Map<String, String> defaultHeaders;
     private final Duration defaultTimeout;
+    private final RequestCoalescer coalescer;
+    private final HttpCache cache;
+    private final boolean negotiateCompression;
+    private final int compressionThreshold;
+    private final Executor decodeExecutor;
+    private volatile BodyCodec codec;
+    private final ConcurrencyLimiter limiter;
+    private final List<RestInterceptor> interceptors;
+    private final RestMetrics metrics;
 
     private RestClient(Builder builder) {
         this.httpClient = builder.httpClient != null
@@ -46,6 +88,19 @@ public final class RestClient {
         this.baseUri = builder.baseUri;
         this.defaultHeaders = Collections.unmodifiableMap(new LinkedHashMap<>(builder.defaultHeaders));
         this.defaultTimeout = builder.defaultTimeout != null ? builder.defaultTimeout : Duration.ofSeconds(30);
+        this.coalescer = builder.coalesceRequests ? new RequestCoalescer(builder.coalescingKeyHeaders) : null;
+        this.cache = builder.responseCache != null ? new HttpCache(builder.responseCache) : null;
+        this.negotiateCompression = builder.negotiateCompression;
+        this.compressionThreshold = builder.compressionThreshold;
+        this.decodeExecutor = builder.decodeExecutor != null ? builder.decodeExecutor : VIRTUAL_THREAD_EXECUTOR;
+        this.codec = builder.codec;
+        this.limiter = builder.maxConcurrentRequests > 0 || builder.maxConcurrentRequestsPerHost > 0
+                ? new ConcurrencyLimiter(builder.maxConcurrentRequests, builder.maxConcurrentRequestsPerHost)
+                : null;
+        this.metrics = builder.metrics;
+        List<RestInterceptor> chain = new ArrayList<>(builder.interceptors);
+        if (metrics != null) chain.add(metrics);
+        this.interceptors = List.copyOf(chain);
     }
 
     public static Builder newBuilder() {
@@ -75,28 +130,530 @@ public final class RestClient {
 
     // ---- Core send helpers ----
     public RestResponse send(RestRequest request) throws IOException, InterruptedException {
-        HttpRequest httpRequest = buildRequest(request);
-        HttpResponse<String> httpResponse =
-                httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-        return toRestResponse(httpResponse);
+        return send(buildRequest(request), request.priority());
     }
 
+    /**
+     * Sends the request asynchronously. When request coalescing is enabled, identical GET/HEAD calls issued while
+     * an equivalent exchange is still in flight share its response instead of triggering another round trip.
+     */
     public CompletableFuture<RestResponse> sendAsync(RestRequest request) {
-        HttpRequest httpRequest = buildRequest(request);
-        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
-                .thenApply(this::toRestResponse);
+        return sendAsync(buildRequest(request), request.priority());
+    }
+
+    /**
+     * Buffered send of an already built request; shared by {@link #send(RestRequest)} and {@link RequestTemplate}.
+     */
+    RestResponse send(HttpRequest httpRequest, RestRequest.Priority priority) throws IOException, InterruptedException {
+        if (cache != null && cache.supports(httpRequest)) {
+            HttpCache.Lookup lookup = cache.lookup(httpRequest);
+            if (lookup.fresh()) return cache.serve(lookup.entry());
+            return cache.complete(httpRequest, lookup, execute(lookup.request(), BUFFERED_BODY, priority));
+        }
+        return completeBuffered(httpRequest, execute(httpRequest, BUFFERED_BODY, priority));
+    }
+
+    CompletableFuture<RestResponse> sendAsync(HttpRequest httpRequest, RestRequest.Priority priority) {
+        if (coalescer != null && coalescer.supports(httpRequest)) {
+            return coalescer.execute(httpRequest, () -> sendBufferedAsync(httpRequest, priority));
+        }
+        return sendBufferedAsync(httpRequest, priority);
+    }
+
+    // ---- Templates ----
+
+    /**
+     * Pre-compiles a GET template such as {@code "/orders/{id}"}; see {@link #template(RestRequest)}.
+     */
+    public RequestTemplate template(String pathTemplate) {
+        return template(RestRequest.get(pathTemplate).build());
+    }
+
+    /**
+     * Pre-compiles {@code prototype}, whose path may contain {@code {name}} placeholders, into a
+     * {@link RequestTemplate}. Base URI resolution, query encoding and the merge with the default headers happen
+     * once here; each call only substitutes the path variables and copies the prepared request.
+     */
+    public RequestTemplate template(RestRequest prototype) {
+        Objects.requireNonNull(prototype, "prototype");
+        List<String> variables = new ArrayList<>();
+        String marked = RequestTemplate.markVariables(prototype.pathOrUrl(), variables);
+        URI uri = appendQuery(resolveUri(marked), prototype.queryParams());
+        if (uri.getScheme() == null) {
+            throw new IllegalArgumentException("Resolved URI must be absolute. Provide a baseUri or absolute path.");
+        }
+        Map<String, String> headers = mergeHeaders(prototype.headers());
+        HttpRequest.Builder builder = HttpRequest.newBuilder();
+        Duration timeout = prototype.timeout().orElse(defaultTimeout);
+        if (timeout != null) builder.timeout(timeout);
+        headers.forEach(builder::header);
+        return new RequestTemplate(this, prototype, uri.toString(), variables, builder,
+                containsHeader(headers, "Content-Type"), containsHeader(headers, "Content-Encoding"));
+    }
+
+    // ---- Batch helpers ----
+
+    /**
+     * Sends all requests with up to {@value #DEFAULT_BATCH_WINDOW} in flight, collecting failures as results.
+     *
+     * @see #sendAll(Collection, int, BatchPolicy)
+     */
+    public Flow.Publisher<BatchResult> sendAll(Collection<RestRequest> requests) {
+        return sendAll(requests, DEFAULT_BATCH_WINDOW, BatchPolicy.COLLECT_ERRORS);
+    }
+
+    /**
+     * Returns a cold publisher that, per subscription, sends every request through {@link #sendAsync(RestRequest)}
+     * and emits results in completion order. At most {@code window} requests are in flight or waiting for
+     * subscriber demand, so over HTTP/2 the burst is multiplexed on the shared connection without flooding it.
+     * <p>
+     * Only transport failures count as errors; non-2xx responses are regular results. With
+     * {@link BatchPolicy#FAIL_FAST} the first failure cancels the requests still in flight and is signalled
+     * through {@code onError}; with {@link BatchPolicy#COLLECT_ERRORS} it is emitted as a failed result.
+     */
+    public Flow.Publisher<BatchResult> sendAll(Collection<RestRequest> requests, int window, BatchPolicy policy) {
+        Objects.requireNonNull(requests, "requests");
+        Objects.requireNonNull(policy, "policy");
+        if (window <= 0) throw new IllegalArgumentException("window must be > 0");
+        return new BatchPublisher(List.copyOf(requests), window, policy, this::sendAsync);
+    }
+
+    /**
+     * Sends all requests like {@link #sendAll(Collection, int, BatchPolicy)} and collects the results in the
+     * order of {@code requests}. With {@link BatchPolicy#FAIL_FAST} the future fails with the first failure.
+     */
+    public CompletableFuture<List<BatchResult>> sendAllAsync(Collection<RestRequest> requests,
+                                                             int window,
+                                                             BatchPolicy policy) {
+        Flow.Publisher<BatchResult> publisher = sendAll(requests, window, policy);
+        BatchResult[] results = new BatchResult[requests.size()];
+        CompletableFuture<List<BatchResult>> future = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                future.whenComplete((ignored, throwable) -> {
+                    if (throwable != null) subscription.cancel();
+                });
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(BatchResult item) {
+                results[item.index()] = item;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(List.of(results));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns coalescing counters, or an all-zero snapshot when coalescing is disabled.
+     */
+    public CoalescingStats coalescingStats() {
+        return coalescer == null ? new CoalescingStats(0, 0, 0) : coalescer.stats();
+    }
+
+    /**
+     * Returns HTTP cache counters, or an all-zero snapshot when no response cache is configured.
+     */
+    public CacheStats cacheStats() {
+        return cache == null ? new CacheStats(0, 0, 0, 0) : cache.stats();
+    }
+
+    /**
+     * Returns per-route exchange metrics, or an empty snapshot when {@link Builder#metrics(RestMetrics)} is unset.
+     */
+    public RestMetrics.Snapshot metrics() {
+        return metrics == null ? new RestMetrics.Snapshot(Instant.now(), List.of()) : metrics.snapshot();
+    }
+
+    /**
+     * Returns admission counters, or an all-zero snapshot when no concurrency limit is configured.
+     */
+    public ConcurrencyStats concurrencyStats() {
+        return limiter == null ? new ConcurrencyStats(0, 0, 0, 0, 0, 0, 0, Map.of()) : limiter.stats();
+    }
+
+    private CompletableFuture<RestResponse> sendBufferedAsync(HttpRequest httpRequest, RestRequest.Priority priority) {
+        if (cache != null && cache.supports(httpRequest)) {
+            HttpCache.Lookup lookup = cache.lookup(httpRequest);
+            if (lookup.fresh()) return CompletableFuture.completedFuture(cache.serve(lookup.entry()));
+            CompletableFuture<HttpResponse<byte[]>> exchange = executeAsync(lookup.request(), BUFFERED_BODY, priority);
+            return FxFutures.propagateCancellation(
+                    exchange.thenApply(response -> cache.complete(httpRequest, lookup, response)), exchange);
+        }
+        CompletableFuture<HttpResponse<byte[]>> exchange = executeAsync(httpRequest, BUFFERED_BODY, priority);
+        return FxFutures.propagateCancellation(
+                exchange.thenApply(response -> completeBuffered(httpRequest, response)), exchange);
+    }
+
+    /**
+     * Runs the exchange through the interceptor chain, ending in {@link #dispatchAsync}.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> executeAsync(HttpRequest httpRequest,
+                                                                HttpResponse.BodyHandler<T> bodyHandler,
+                                                                RestRequest.Priority priority) {
+        if (interceptors.isEmpty()) return dispatchAsync(httpRequest, bodyHandler, priority);
+        return proceed(0, httpRequest, bodyHandler, priority);
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> proceed(int index,
+                                                           HttpRequest httpRequest,
+                                                           HttpResponse.BodyHandler<T> bodyHandler,
+                                                           RestRequest.Priority priority) {
+        if (index == interceptors.size()) return dispatchAsync(httpRequest, bodyHandler, priority);
+        RestInterceptor.Chain<T> next = new RestInterceptor.Chain<>() {
+            @Override
+            public RestRequest.Priority priority() {
+                return priority;
+            }
+
+            @Override
+            public HttpResponse.BodyHandler<T> bodyHandler() {
+                return bodyHandler;
+            }
+
+            @Override
+            public CompletableFuture<HttpResponse<T>> proceed(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+                return RestClient.this.proceed(index + 1, Objects.requireNonNull(request, "request"),
+                        Objects.requireNonNull(handler, "bodyHandler"), priority);
+            }
+        };
+        try {
+            return Objects.requireNonNull(interceptors.get(index).intercept(httpRequest, next),
+                    "Interceptor returned null future");
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Blocking variant used by the synchronous API. Without interceptors the exchange runs on the calling thread;
+     * otherwise the asynchronous chain is awaited.
+     */
+    private <T> HttpResponse<T> execute(HttpRequest httpRequest,
+                                        HttpResponse.BodyHandler<T> bodyHandler,
+                                        RestRequest.Priority priority) throws IOException, InterruptedException {
+        if (interceptors.isEmpty()) return dispatch(httpRequest, bodyHandler, priority);
+        CompletableFuture<HttpResponse<T>> future = executeAsync(httpRequest, bodyHandler, priority);
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            throw ex;
+        } catch (ExecutionException ex) {
+            Throwable cause = ResilienceInterceptors.unwrap(ex);
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Sends through the concurrency limiter when one is configured. The permit is held until the response future
+     * completes, i.e. until the body is buffered for buffered handlers, or until headers arrive for streaming ones.
+     * <p>
+     * Cancelling the returned future withdraws a queued request from the limiter or aborts the exchange in flight,
+     * which also cancels the body subscription; either way the permit is returned.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> dispatchAsync(HttpRequest httpRequest,
+                                                                 HttpResponse.BodyHandler<T> bodyHandler,
+                                                                 RestRequest.Priority priority) {
+        if (limiter == null) return httpClient.sendAsync(httpRequest, bodyHandler);
+        CompletableFuture<ConcurrencyLimiter.Permit> admission =
+                limiter.acquire(ConcurrencyLimiter.hostKey(httpRequest.uri()), priority);
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        FxFutures.propagateCancellation(result, admission);
+        admission.whenComplete((permit, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            if (result.isDone()) {
+                permit.release();
+                return;
+            }
+            CompletableFuture<HttpResponse<T>> exchange;
+            try {
+                exchange = httpClient.sendAsync(httpRequest, bodyHandler);
+            } catch (RuntimeException ex) {
+                permit.release();
+                result.completeExceptionally(ex);
+                return;
+            }
+            exchange.whenComplete((response, throwable) -> {
+                permit.release();
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(response);
+                }
+            });
+            FxFutures.propagateCancellation(result, exchange);
+        });
+        return result;
+    }
+
+    private <T> HttpResponse<T> dispatch(HttpRequest httpRequest,
+                                         HttpResponse.BodyHandler<T> bodyHandler,
+                                         RestRequest.Priority priority) throws IOException, InterruptedException {
+        if (limiter == null) return httpClient.send(httpRequest, bodyHandler);
+        CompletableFuture<ConcurrencyLimiter.Permit> admission =
+                limiter.acquire(ConcurrencyLimiter.hostKey(httpRequest.uri()), priority);
+        ConcurrencyLimiter.Permit permit;
+        try {
+            permit = admission.get();
+        } catch (InterruptedException ex) {
+            if (!admission.cancel(false)) admission.join().release();
+            throw ex;
+        } catch (ExecutionException ex) {
+            throw new IOException("Unable to acquire a request slot", ex.getCause());
+        }
+        try {
+            return httpClient.send(httpRequest, bodyHandler);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private RestResponse completeBuffered(HttpRequest httpRequest, HttpResponse<byte[]> response) {
+        if (cache != null) cache.invalidateIfUnsafe(httpRequest, response.statusCode());
+        return toRestResponse(response);
+    }
+
+    // ---- Streaming helpers ----
+
+    /**
+     * Sends the request and exposes the body as an {@link InputStream} that is filled while bytes arrive.
+     * The caller must close the stream (or the returned response) to release the connection.
+     */
+    public StreamingRestResponse<InputStream> sendForInputStream(RestRequest request)
+            throws IOException, InterruptedException {
+        return stream(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    public CompletableFuture<StreamingRestResponse<InputStream>> sendForInputStreamAsync(RestRequest request) {
+        return streamAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /**
+     * Sends the request and exposes the body as a lazily decoded stream of lines. The charset is taken from the
+     * response {@code Content-Type} and defaults to UTF-8. Close the stream once done.
+     */
+    public StreamingRestResponse<Stream<String>> sendForLines(RestRequest request)
+            throws IOException, InterruptedException {
+        return stream(request, HttpResponse.BodyHandlers.ofLines());
+    }
+
+    public CompletableFuture<StreamingRestResponse<Stream<String>>> sendForLinesAsync(RestRequest request) {
+        return streamAsync(request, HttpResponse.BodyHandlers.ofLines());
+    }
+
+    /**
+     * Sends the request and hands the raw body over as a {@link Flow.Publisher}. The publisher must be subscribed
+     * to exactly once; the subscriber controls backpressure through its subscription demand.
+     */
+    public StreamingRestResponse<Flow.Publisher<List<ByteBuffer>>> sendForPublisher(RestRequest request)
+            throws IOException, InterruptedException {
+        return stream(request, HttpResponse.BodyHandlers.ofPublisher());
+    }
+
+    public CompletableFuture<StreamingRestResponse<Flow.Publisher<List<ByteBuffer>>>> sendForPublisherAsync(
+            RestRequest request) {
+        return streamAsync(request, HttpResponse.BodyHandlers.ofPublisher());
+    }
+
+    /**
+     * Streams the body straight into {@code target}. Defaults to create/truncate/write when no options are given.
+     */
+    public StreamingRestResponse<Path> download(RestRequest request, Path target, OpenOption... options)
+            throws IOException, InterruptedException {
+        return stream(request, fileHandler(target, options));
+    }
+
+    public CompletableFuture<StreamingRestResponse<Path>> downloadAsync(RestRequest request,
+                                                                        Path target,
+                                                                        OpenOption... options) {
+        return streamAsync(request, fileHandler(target, options));
+    }
+
+    /**
+     * Sends the request with a caller supplied body handler, for cases the dedicated helpers do not cover.
+     */
+    public <T> StreamingRestResponse<T> stream(RestRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        return toStreamingResponse(exchange(request, bodyHandler));
+    }
+
+    public <T> CompletableFuture<StreamingRestResponse<T>> streamAsync(RestRequest request,
+                                                                       HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<HttpResponse<T>> exchange = exchangeAsync(request, bodyHandler);
+        return FxFutures.propagateCancellation(exchange.thenApply(this::toStreamingResponse), exchange);
+    }
+
+    // ---- Typed helpers ----
+
+    /**
+     * Sends the request and decodes a 2xx body with {@code decoder} while it streams in, on the decode executor.
+     * Non-2xx answers complete the future with an {@link HttpStatusException}.
+     */
+    public <T> CompletableFuture<T> sendAsync(RestRequest request, BodyDecoder<T> decoder) {
+        Objects.requireNonNull(decoder, "decoder");
+        CompletableFuture<HttpResponse<InputStream>> exchange =
+                exchangeAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        CompletableFuture<T> result = exchange.thenApplyAsync(response -> {
+            try {
+                return decodeMeasured(response, decoder);
+            } catch (IOException ex) {
+                throw new CompletionException(ex);
+            }
+        }, decodeExecutor);
+        // Once headers are in, cancelling means closing the stream so a decode in progress stops reading.
+        result.whenComplete((value, throwable) -> {
+            if (result.isCancelled()) exchange.thenAccept(response -> closeQuietly(response.body()));
+        });
+        return FxFutures.propagateCancellation(result, exchange);
     }
 
-    private RestResponse toRestResponse(HttpResponse<String> response) {
+    public <T> T send(RestRequest request, BodyDecoder<T> decoder) throws IOException, InterruptedException {
+        Objects.requireNonNull(decoder, "decoder");
+        return decodeMeasured(exchange(request, HttpResponse.BodyHandlers.ofInputStream()), decoder);
+    }
+
+    /**
+     * Decodes the body into {@code type} using the configured {@link BodyCodec}.
+     */
+    public <T> CompletableFuture<T> sendAsync(RestRequest request, Class<T> type) {
+        Objects.requireNonNull(type, "type");
+        return sendAsync(request, requireCodec().<T>decoder(type));
+    }
+
+    /**
+     * Decodes a top-level array body element by element using the configured {@link BodyCodec}. The future
+     * completes as soon as the response headers are in; elements are parsed while the stream is consumed, and
+     * the stream must be closed when done.
+     */
+    public <T> CompletableFuture<Stream<T>> sendForElementsAsync(RestRequest request, Class<T> elementType) {
+        Objects.requireNonNull(elementType, "elementType");
+        return sendAsync(request, requireCodec().elementDecoder(elementType));
+    }
+
+    private BodyCodec requireCodec() {
+        BodyCodec current = codec;
+        if (current == null) {
+            current = BodyCodec.load("application/json").orElseThrow(() -> new IllegalStateException(
+                    "No BodyCodec configured. Use RestClient.Builder.codec(...) or register a BodyCodec service."));
+            codec = current;
+        }
+        return current;
+    }
+
+    /**
+     * Decodes and, when metrics are enabled, records the decode time. Lazily decoded streams only account for the
+     * time until the stream is handed out.
+     */
+    private <T> T decodeMeasured(HttpResponse<InputStream> response, BodyDecoder<T> decoder) throws IOException {
+        if (metrics == null) return decodeBody(response, decoder);
+        long start = System.nanoTime();
+        try {
+            return decodeBody(response, decoder);
+        } finally {
+            metrics.recordDecode(response.request(), System.nanoTime() - start);
+        }
+    }
+
+    private static <T> T decodeBody(HttpResponse<InputStream> response, BodyDecoder<T> decoder) throws IOException {
+        InputStream body = response.body();
+        Charset charset = charsetOf(response.headers());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            try (body) {
+                String text = new String(body.readNBytes(ERROR_BODY_LIMIT), charset);
+                throw new HttpStatusException(response.statusCode(),
+                        ContentEncoding.decodedHeaders(response.headers()), response.uri(), text);
+            }
+        }
+        boolean keepOpen = false;
+        try {
+            T result = decoder.decode(body, charset);
+            keepOpen = result instanceof BaseStream<?, ?>;
+            return result;
+        } finally {
+            if (!keepOpen) body.close();
+        }
+    }
+
+    private static Charset charsetOf(HttpHeaders headers) {
+        String contentType = headers.firstValue("Content-Type").orElse("");
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.regionMatches(true, 0, "charset=", 0, 8)) {
+                try {
+                    return Charset.forName(trimmed.substring(8).replace("\"", "").trim());
+                } catch (IllegalArgumentException ignored) {
+                    return StandardCharsets.UTF_8;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private <T> HttpResponse<T> exchange(RestRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        Objects.requireNonNull(bodyHandler, "bodyHandler");
+        return execute(buildRequest(request), ContentEncoding.decoding(bodyHandler), request.priority());
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> exchangeAsync(RestRequest request,
+                                                                 HttpResponse.BodyHandler<T> bodyHandler) {
+        Objects.requireNonNull(bodyHandler, "bodyHandler");
+        return executeAsync(buildRequest(request), ContentEncoding.decoding(bodyHandler), request.priority());
+    }
+
+    private static HttpResponse.BodyHandler<Path> fileHandler(Path target, OpenOption... options) {
+        Objects.requireNonNull(target, "target");
+        OpenOption[] effective = options == null || options.length == 0
+                ? new OpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE}
+                : options;
+        return HttpResponse.BodyHandlers.ofFile(target, effective);
+    }
+
+    static RestResponse toRestResponse(HttpResponse<byte[]> response) {
         return new RestResponse(
+                response.statusCode(),
+                new String(response.body(), StandardCharsets.UTF_8),
+                ContentEncoding.decodedHeaders(response.headers()),
+                response.uri(),
+                response.version());
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // closing only aborts the download
+        }
+    }
+
+    private <T> StreamingRestResponse<T> toStreamingResponse(HttpResponse<T> response) {
+        return new StreamingRestResponse<>(
                 response.statusCode(),
                 response.body(),
-                response.headers(),
+                ContentEncoding.decodedHeaders(response.headers()),
                 response.uri(),
                 response.version());
     }
 
-    private HttpRequest buildRequest(RestRequest restRequest) {
+    HttpRequest buildRequest(RestRequest restRequest) {
         Objects.requireNonNull(restRequest, "restRequest");
         HttpRequest.Builder builder = HttpRequest.newBuilder();
 
@@ -109,22 +666,49 @@ public final class RestClient {
         Duration timeout = restRequest.timeout().orElse(defaultTimeout);
         if (timeout != null) builder.timeout(timeout);
 
-        HttpRequest.BodyPublisher publisher = restRequest.body()
-                .map(body -> HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
-                .orElseGet(HttpRequest.BodyPublishers::noBody);
-        builder.method(restRequest.method(), publisher);
+        Map<String, String> mergedHeaders = mergeHeaders(restRequest.headers());
 
-        Map<String, String> mergedHeaders = new LinkedHashMap<>(defaultHeaders);
-        mergedHeaders.putAll(restRequest.headers());
-        if (restRequest.body().isPresent()) {
-            String contentType = restRequest.contentType().orElse("text/plain; charset=UTF-8");
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.noBody();
+        RequestBody body = restRequest.requestBody().orElse(null);
+        if (body != null) {
+            publisher = body.publisher();
+            if (shouldCompress(body) && !containsHeader(mergedHeaders, "Content-Encoding")) {
+                publisher = HttpRequest.BodyPublishers.ofByteArray(body.gzipped());
+                mergedHeaders.put("Content-Encoding", "gzip");
+            }
+            String contentType = restRequest.contentType().orElse(defaultContentType(body));
             mergedHeaders.putIfAbsent("Content-Type", contentType);
         }
+        builder.method(restRequest.method(), publisher);
         mergedHeaders.forEach(builder::header);
 
         return builder.build();
     }
 
+    private Map<String, String> mergeHeaders(Map<String, String> requestHeaders) {
+        Map<String, String> mergedHeaders = new LinkedHashMap<>(defaultHeaders);
+        mergedHeaders.putAll(requestHeaders);
+        if (negotiateCompression && !containsHeader(mergedHeaders, "Accept-Encoding")) {
+            mergedHeaders.put("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
+        }
+        return mergedHeaders;
+    }
+
+    boolean shouldCompress(RequestBody body) {
+        return compressionThreshold > 0 && body.isInMemory() && body.contentLength() >= compressionThreshold;
+    }
+
+    static String defaultContentType(RequestBody body) {
+        return body.text().isPresent() ? "text/plain; charset=UTF-8" : "application/octet-stream";
+    }
+
+    private static boolean containsHeader(Map<String, String> headers, String name) {
+        for (String key : headers.keySet()) {
+            if (key.equalsIgnoreCase(name)) return true;
+        }
+        return false;
+    }
+
     private URI resolveUri(String pathOrUrl) {
         if (pathOrUrl == null || pathOrUrl.isBlank()) {
             if (baseUri == null) throw new IllegalArgumentException("No path provided and baseUri is not set.");
@@ -138,17 +722,26 @@ public final class RestClient {
         return baseUri.resolve(pathOrUrl);
     }
 
+    /**
+     * Appends the form-encoded parameters to the raw query. The URI is assembled from its raw string so the
+     * already percent-encoded values are not quoted a second time.
+     */
     private URI appendQuery(URI base, Map<String, String> params) {
         if (params.isEmpty()) return base;
         String encoded = params.entrySet().stream()
                 .map(entry -> encode(entry.getKey()) + "=" + encode(entry.getValue()))
                 .collect(Collectors.joining("&"));
-        String combinedQuery = base.getQuery();
-        combinedQuery = (combinedQuery == null || combinedQuery.isBlank())
-                ? encoded
-                : combinedQuery + "&" + encoded;
+        String raw = base.toString();
+        String fragment = "";
+        int hash = raw.indexOf('#');
+        if (hash >= 0) {
+            fragment = raw.substring(hash);
+            raw = raw.substring(0, hash);
+        }
+        String existing = base.getRawQuery();
+        String separator = existing == null ? "?" : existing.isEmpty() || raw.endsWith("&") ? "" : "&";
         try {
-            return new URI(base.getScheme(), base.getAuthority(), base.getPath(), combinedQuery, base.getFragment());
+            return new URI(raw + separator + encoded + fragment);
         } catch (URISyntaxException ex) {
             throw new IllegalArgumentException("Unable to append query parameters to URI: " + base, ex);
         }
@@ -158,12 +751,96 @@ public final class RestClient {
         return URLEncoder.encode(value, StandardCharsets.UTF_8);
     }
 
+    /**
+     * How {@link #sendAll(Collection, int, BatchPolicy)} reacts to a failed request.
+     */
+    public enum BatchPolicy { FAIL_FAST, COLLECT_ERRORS }
+
+    /**
+     * Outcome of one request of a batch.
+     *
+     * @param index    position of the request in the submitted collection
+     * @param request  the request
+     * @param response the response, or {@code null} when the exchange failed
+     * @param error    the failure, or {@code null} when a response was received
+     */
+    public record BatchResult(int index, RestRequest request, RestResponse response, Throwable error) {
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Snapshot of request coalescing activity.
+     *
+     * @param executed  exchanges actually sent to the server
+     * @param coalesced calls that piggy-backed on an exchange already in flight
+     * @param inFlight  distinct exchanges currently in flight
+     */
+    public record CoalescingStats(long executed, long coalesced, int inFlight) {
+        /**
+         * Share of eligible calls that were served by another call's exchange.
+         */
+        public double coalescedRatio() {
+            long total = executed + coalesced;
+            return total == 0 ? 0d : (double) coalesced / total;
+        }
+    }
+
+    /**
+     * Snapshot of HTTP cache activity.
+     *
+     * @param hits        responses served from a fresh cache entry without a round trip
+     * @param misses      lookups that had to download a full body
+     * @param revalidated stale entries confirmed by a {@code 304 Not Modified} and served from cache
+     * @param stored      responses written to the cache
+     */
+    public record CacheStats(long hits, long misses, long revalidated, long stored) {
+        public double hitRatio() {
+            long total = hits + misses + revalidated;
+            return total == 0 ? 0d : (double) (hits + revalidated) / total;
+        }
+    }
+
+    /**
+     * Snapshot of the concurrency limiter.
+     *
+     * @param inFlight           exchanges currently holding a slot
+     * @param queued             calls waiting for a slot
+     * @param queuedInteractive  waiting calls with {@link RestRequest.Priority#INTERACTIVE}
+     * @param queuedNormal       waiting calls with {@link RestRequest.Priority#NORMAL}
+     * @param queuedBackground   waiting calls with {@link RestRequest.Priority#BACKGROUND}
+     * @param delayed            calls that had to queue since the client was created
+     * @param maxQueueDepth      highest queue depth observed
+     * @param inFlightPerHost    exchanges in flight keyed by {@code scheme://authority}
+     */
+    public record ConcurrencyStats(int inFlight,
+                                   int queued,
+                                   int queuedInteractive,
+                                   int queuedNormal,
+                                   int queuedBackground,
+                                   long delayed,
+                                   int maxQueueDepth,
+                                   Map<String, Integer> inFlightPerHost) {
+    }
+
     // ---- Builder ----
     public static final class Builder {
         private HttpClient httpClient;
         private URI baseUri;
         private final Map<String, String> defaultHeaders = new LinkedHashMap<>();
         private Duration defaultTimeout;
+        private boolean coalesceRequests;
+        private List<String> coalescingKeyHeaders = List.of();
+        private RestResponseCache responseCache;
+        private boolean negotiateCompression = true;
+        private int compressionThreshold;
+        private Executor decodeExecutor;
+        private BodyCodec codec;
+        private int maxConcurrentRequests;
+        private int maxConcurrentRequestsPerHost;
+        private final List<RestInterceptor> interceptors = new ArrayList<>();
+        private RestMetrics metrics;
 
         private Builder() {
         }
@@ -200,6 +877,105 @@ public final class RestClient {
             return this;
         }
 
+        /**
+         * Enables single-flight coalescing of identical in-flight GET/HEAD requests issued through
+         * {@link RestClient#sendAsync(RestRequest)}. Requests are considered identical when method, resolved URI
+         * and the values of {@code keyHeaders} (e.g. {@code Accept}, {@code Accept-Language}) match.
+         * {@code Authorization}, {@code Proxy-Authorization} and {@code Cookie} are always part of the key whether
+         * named or not, so requests carrying different credentials never share a response.
+         */
+        public Builder coalesceRequests(String... keyHeaders) {
+            this.coalesceRequests = true;
+            this.coalescingKeyHeaders = keyHeaders == null ? List.of() : List.of(keyHeaders);
+            return this;
+        }
+
+        /**
+         * Enables HTTP caching of GET responses for {@link RestClient#send(RestRequest)} and
+         * {@link RestClient#sendAsync(RestRequest)}. See {@link RestResponseCache#inMemory(long)} and
+         * {@link RestResponseCache#tiered(long, Path, long)} for the built-in stores.
+         */
+        public Builder responseCache(RestResponseCache cache) {
+            this.responseCache = cache;
+            return this;
+        }
+
+        /**
+         * Controls whether {@code Accept-Encoding: gzip, deflate} is sent when the request does not set the header
+         * itself. Enabled by default. gzip/deflate encoded responses are decoded transparently either way.
+         */
+        public Builder negotiateCompression(boolean enabled) {
+            this.negotiateCompression = enabled;
+            return this;
+        }
+
+        /**
+         * Gzip-compresses request bodies of at least {@code minBytes} bytes and marks them with
+         * {@code Content-Encoding: gzip}. Only enable this for servers that accept compressed requests;
+         * {@code 0} (the default) disables request compression.
+         */
+        public Builder compressRequestBodies(int minBytes) {
+            if (minBytes < 0) throw new IllegalArgumentException("minBytes must be >= 0");
+            this.compressionThreshold = minBytes;
+            return this;
+        }
+
+        /**
+         * Codec used by the {@code Class}-based typed helpers. When unset, the first {@link BodyCodec} service
+         * supporting {@code application/json} is looked up on first use.
+         */
+        public Builder codec(BodyCodec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * Executor running {@link BodyDecoder}s. Decoders block while bytes arrive, so the default runs each one
+         * on its own virtual thread.
+         */
+        public Builder decodeExecutor(Executor executor) {
+            this.decodeExecutor = executor;
+            return this;
+        }
+
+        /**
+         * Caps the number of exchanges in flight across all hosts; further calls queue without blocking and are
+         * admitted by {@link RestRequest#priority()} and arrival order. {@code 0} (the default) means unlimited.
+         */
+        public Builder maxConcurrentRequests(int max) {
+            if (max < 0) throw new IllegalArgumentException("max must be >= 0");
+            this.maxConcurrentRequests = max;
+            return this;
+        }
+
+        /**
+         * Caps the number of exchanges in flight per scheme/host/port. {@code 0} (the default) means unlimited.
+         */
+        public Builder maxConcurrentRequestsPerHost(int max) {
+            if (max < 0) throw new IllegalArgumentException("max must be >= 0");
+            this.maxConcurrentRequestsPerHost = max;
+            return this;
+        }
+
+        /**
+         * Appends an interceptor to the exchange chain; interceptors run in registration order, the first one
+         * outermost. See {@link ResilienceInterceptors} for retry, circuit breaking and rate limiting.
+         */
+        public Builder interceptor(RestInterceptor interceptor) {
+            interceptors.add(Objects.requireNonNull(interceptor, "interceptor"));
+            return this;
+        }
+
+        /**
+         * Records per-route latency, status and traffic metrics. The metrics interceptor always runs innermost,
+         * after every interceptor added with {@link #interceptor(RestInterceptor)}, so each retry attempt is
+         * measured individually; decode time of typed calls is recorded as well.
+         */
+        public Builder metrics(RestMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         public RestClient build() {
             return new RestClient(this);
         }
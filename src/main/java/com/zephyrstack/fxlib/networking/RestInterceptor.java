@@ -0,0 +1,54 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous interceptor around every network exchange of a {@link RestClient}. Interceptors registered via
+ * {@link RestClient.Builder#interceptor(RestInterceptor)} form a chain in registration order (the first one is
+ * outermost); the end of the chain passes the concurrency limiter and sends the request.
+ * <p>
+ * Interceptors may rewrite the request, call {@link Chain#proceed(HttpRequest)} zero or more times (e.g. to retry)
+ * and transform the result, but must never block: waiting belongs in scheduled continuations. Cache hits are
+ * served before the chain and never reach it.
+ * <p>
+ * Callers cancel the returned future to abort the exchange. An interceptor that returns a derived future rather
+ * than the one from {@code proceed} must forward that cancellation, e.g. with
+ * {@link com.zephyrstack.fxlib.concurrent.FxFutures#propagateCancellation}.
+ */
+@FunctionalInterface
+public interface RestInterceptor {
+
+    <T> CompletableFuture<HttpResponse<T>> intercept(HttpRequest request, Chain<T> chain);
+
+    /**
+     * Remainder of the chain for one exchange.
+     *
+     * @param <T> body type produced by the exchange's body handler
+     */
+    interface Chain<T> {
+        /**
+         * Priority the request was submitted with.
+         */
+        RestRequest.Priority priority();
+
+        /**
+         * Body handler the exchange will use. Interceptors may decorate it (e.g. to observe header arrival or
+         * count bytes) and pass the decorated handler to {@link #proceed(HttpRequest, HttpResponse.BodyHandler)}.
+         */
+        HttpResponse.BodyHandler<T> bodyHandler();
+
+        /**
+         * Hands the (possibly rewritten) request and body handler to the next interceptor.
+         */
+        CompletableFuture<HttpResponse<T>> proceed(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler);
+
+        /**
+         * Hands the (possibly rewritten) request to the next interceptor. May be invoked again for retries.
+         */
+        default CompletableFuture<HttpResponse<T>> proceed(HttpRequest request) {
+            return proceed(request, bodyHandler());
+        }
+    }
+}
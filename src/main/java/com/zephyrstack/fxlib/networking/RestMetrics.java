@@ -0,0 +1,326 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Interceptor that records per-route exchange metrics: total latency, time to response headers, body download
+ * time and (for typed calls) decode time as {@link LatencyHistogram}s, plus status-code counts, bytes on the wire
+ * and an in-flight gauge.
+ * <p>
+ * Register it with {@link RestClient.Builder#metrics(RestMetrics)}, which places it innermost so every attempt made
+ * by retry interceptors is measured on its own. Requests are grouped by {@link Builder#routeKey(Function)}; the
+ * default key is the method plus the path with numeric, UUID and long hex segments replaced by {@code {id}}.
+ * Bytes in are counted as they arrive on the wire, i.e. before content decoding.
+ */
+public final class RestMetrics implements RestInterceptor {
+    private static final String OVERFLOW_ROUTE = "(other)";
+
+    private final Function<HttpRequest, String> routeKey;
+    private final int maxRoutes;
+    private final ConcurrentHashMap<String, Route> routes = new ConcurrentHashMap<>();
+
+    private RestMetrics(Builder builder) {
+        this.routeKey = builder.routeKey;
+        this.maxRoutes = builder.maxRoutes;
+    }
+
+    public static RestMetrics create() {
+        return newBuilder().build();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> intercept(HttpRequest request, Chain<T> chain) {
+        Route route = route(request);
+        Exchange exchange = new Exchange(route, System.nanoTime());
+        route.begin(request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L));
+        HttpResponse.BodyHandler<T> delegate = chain.bodyHandler();
+        HttpResponse.BodyHandler<T> instrumented = info -> {
+            exchange.headers(info.statusCode());
+            return new CountingSubscriber<>(delegate.apply(info), exchange);
+        };
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = chain.proceed(request, instrumented);
+        } catch (RuntimeException ex) {
+            route.inFlight.decrementAndGet();
+            exchange.finish(true);
+            throw ex;
+        }
+        future.whenComplete((response, throwable) -> {
+            route.inFlight.decrementAndGet();
+            if (throwable != null) exchange.finish(true);
+        });
+        return future;
+    }
+
+    /**
+     * Records the time a {@link BodyDecoder} spent on the response of {@code request}.
+     */
+    void recordDecode(HttpRequest request, long nanos) {
+        route(request).decode.record(nanos);
+    }
+
+    public Snapshot snapshot() {
+        List<RouteSnapshot> result = new ArrayList<>(routes.size());
+        routes.values().forEach(route -> result.add(route.snapshot()));
+        result.sort(Comparator.comparing(RouteSnapshot::route));
+        return new Snapshot(Instant.now(), List.copyOf(result));
+    }
+
+    public void reset() {
+        routes.values().forEach(Route::reset);
+    }
+
+    private Route route(HttpRequest request) {
+        String key = Objects.requireNonNullElse(routeKey.apply(request), OVERFLOW_ROUTE);
+        Route route = routes.get(key);
+        if (route != null) return route;
+        if (routes.size() >= maxRoutes) key = OVERFLOW_ROUTE;
+        return routes.computeIfAbsent(key, Route::new);
+    }
+
+    /**
+     * Default route key: method and path, with identifier-like segments collapsed to {@code {id}}.
+     */
+    static String templatedRoute(HttpRequest request) {
+        String path = request.uri().getRawPath();
+        StringBuilder key = new StringBuilder(request.method()).append(' ');
+        if (path == null || path.isEmpty()) return key.append('/').toString();
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) end = path.length();
+            if (isIdentifier(path, start, end)) key.append("{id}");
+            else key.append(path, start, end);
+            if (end < path.length()) key.append('/');
+            start = end + 1;
+        }
+        if (path.endsWith("/") && key.charAt(key.length() - 1) != '/') key.append('/');
+        return key.toString();
+    }
+
+    private static boolean isIdentifier(String path, int start, int end) {
+        int length = end - start;
+        if (length == 0) return false;
+        boolean digitsOnly = true;
+        boolean hexOrDash = true;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            if (digit) digits++;
+            digitsOnly &= digit;
+            hexOrDash &= digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-';
+        }
+        return digitsOnly || (hexOrDash && length >= 16 && digits > 0);
+    }
+
+    /**
+     * Point-in-time view of all routes.
+     */
+    public record Snapshot(Instant capturedAt, List<RouteSnapshot> routes) {
+        /**
+         * Routes ordered by descending p99 latency.
+         */
+        public List<RouteSnapshot> slowest(int limit) {
+            return routes.stream()
+                    .sorted(Comparator.comparing((RouteSnapshot route) -> route.latency().p99()).reversed())
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    /**
+     * Metrics of one route.
+     *
+     * @param route         route key
+     * @param requests      exchanges started
+     * @param failures      exchanges that failed or whose body stream broke
+     * @param inFlight      exchanges awaiting their response
+     * @param statusCodes   responses per status code
+     * @param bytesOut      request body bytes, when the length was known up front
+     * @param bytesIn       response body bytes as received on the wire
+     * @param latency       start of the exchange until the body was fully received
+     * @param timeToHeaders start of the exchange until the response headers arrived
+     * @param download      response headers until the body was fully received
+     * @param decode        time spent in {@link BodyDecoder}s
+     */
+    public record RouteSnapshot(String route,
+                                long requests,
+                                long failures,
+                                int inFlight,
+                                Map<Integer, Long> statusCodes,
+                                long bytesOut,
+                                long bytesIn,
+                                LatencyHistogram.Snapshot latency,
+                                LatencyHistogram.Snapshot timeToHeaders,
+                                LatencyHistogram.Snapshot download,
+                                LatencyHistogram.Snapshot decode) {
+    }
+
+    private static final class Route {
+        private final String key;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ConcurrentHashMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram timeToHeaders = new LatencyHistogram();
+        private final LatencyHistogram download = new LatencyHistogram();
+        private final LatencyHistogram decode = new LatencyHistogram();
+
+        private Route(String key) {
+            this.key = key;
+        }
+
+        private void begin(long requestBytes) {
+            requests.increment();
+            inFlight.incrementAndGet();
+            if (requestBytes > 0) bytesOut.add(requestBytes);
+        }
+
+        private void status(int statusCode) {
+            LongAdder counter = statusCodes.get(statusCode);
+            if (counter == null) counter = statusCodes.computeIfAbsent(statusCode, code -> new LongAdder());
+            counter.increment();
+        }
+
+        private RouteSnapshot snapshot() {
+            Map<Integer, Long> codes = new TreeMap<>();
+            statusCodes.forEach((code, count) -> codes.put(code, count.sum()));
+            return new RouteSnapshot(key, requests.sum(), failures.sum(), inFlight.get(), Map.copyOf(codes),
+                    bytesOut.sum(), bytesIn.sum(), latency.snapshot(), timeToHeaders.snapshot(),
+                    download.snapshot(), decode.snapshot());
+        }
+
+        private void reset() {
+            requests.reset();
+            failures.reset();
+            statusCodes.clear();
+            bytesOut.reset();
+            bytesIn.reset();
+            latency.reset();
+            timeToHeaders.reset();
+            download.reset();
+            decode.reset();
+        }
+    }
+
+    /**
+     * Timestamps of one attempt; finishes exactly once, on body completion or on failure.
+     */
+    private static final class Exchange {
+        private final Route route;
+        private final long startNanos;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile long headersNanos;
+
+        private Exchange(Route route, long startNanos) {
+            this.route = route;
+            this.startNanos = startNanos;
+        }
+
+        private void headers(int statusCode) {
+            long now = System.nanoTime();
+            headersNanos = now;
+            route.timeToHeaders.record(now - startNanos);
+            route.status(statusCode);
+        }
+
+        private void finish(boolean failed) {
+            if (!finished.compareAndSet(false, true)) return;
+            long now = System.nanoTime();
+            route.latency.record(now - startNanos);
+            if (failed) {
+                route.failures.increment();
+            } else if (headersNanos != 0L) {
+                route.download.record(now - headersNanos);
+            }
+        }
+    }
+
+    private record CountingSubscriber<T>(HttpResponse.BodySubscriber<T> delegate, Exchange exchange)
+            implements HttpResponse.BodySubscriber<T> {
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            long bytes = 0;
+            for (int i = 0; i < item.size(); i++) bytes += item.get(i).remaining();
+            exchange.route.bytesIn.add(bytes);
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            exchange.finish(true);
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            exchange.finish(false);
+            delegate.onComplete();
+        }
+    }
+
+    public static final class Builder {
+        private Function<HttpRequest, String> routeKey = RestMetrics::templatedRoute;
+        private int maxRoutes = 256;
+
+        private Builder() {
+        }
+
+        /**
+         * Maps a request to the route its metrics are grouped under.
+         */
+        public Builder routeKey(Function<HttpRequest, String> routeKey) {
+            this.routeKey = Objects.requireNonNull(routeKey, "routeKey");
+            return this;
+        }
+
+        /**
+         * Caps the number of distinct routes; further keys are folded into a shared {@code (other)} route.
+         */
+        public Builder maxRoutes(int maxRoutes) {
+            if (maxRoutes <= 0) throw new IllegalArgumentException("maxRoutes must be > 0");
+            this.maxRoutes = maxRoutes;
+            return this;
+        }
+
+        public RestMetrics build() {
+            return new RestMetrics(this);
+        }
+    }
+}
@@ -1,24 +1,38 @@
 package com.zephyrstack.fxlib.networking;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Immutable description of an HTTP request. Use {@link Builder} shortcuts such as {@link #get(String)}
  * or {@link #post(String)} to prepare a request with query parameters, headers, and body content.
+ * Bodies may be text, byte arrays, buffers, files or stream suppliers; see {@link RequestBody}.
  */
 public final class RestRequest {
+    /**
+     * Scheduling hint used when {@link RestClient} limits concurrency: queued interactive requests are admitted
+     * before normal ones, and normal ones before background prefetching.
+     */
+    public enum Priority { INTERACTIVE, NORMAL, BACKGROUND }
+
     private final String method;
     private final String pathOrUrl;
     private final Map<String, String> headers;
     private final Map<String, String> queryParams;
-    private final String body;
+    private final RequestBody body;
     private final String contentType;
     private final Duration timeout;
+    private final Priority priority;
 
     private RestRequest(Builder builder) {
         this.method = builder.method;
@@ -28,15 +42,30 @@ public final class RestRequest {
         this.body = builder.body;
         this.contentType = builder.contentType;
         this.timeout = builder.timeout;
+        this.priority = builder.priority;
     }
 
     public String method() { return method; }
     public String pathOrUrl() { return pathOrUrl; }
     public Map<String, String> headers() { return headers; }
     public Map<String, String> queryParams() { return queryParams; }
-    public Optional<String> body() { return Optional.ofNullable(body); }
+    /** Textual body, present only when the body was supplied as a {@code String}. */
+    public Optional<String> body() { return body == null ? Optional.empty() : body.text(); }
+    public Optional<RequestBody> requestBody() { return Optional.ofNullable(body); }
     public Optional<String> contentType() { return Optional.ofNullable(contentType); }
     public Optional<Duration> timeout() { return Optional.ofNullable(timeout); }
+    public Priority priority() { return priority; }
+
+    /**
+     * Returns a builder pre-populated with this request, e.g. to add a header before re-sending it.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(method, pathOrUrl).headers(headers).queryParams(queryParams).timeout(timeout)
+                .priority(priority);
+        builder.body = body;
+        builder.contentType = contentType;
+        return builder;
+    }
 
     // ---- Builder helpers ----
 
@@ -45,15 +74,17 @@ public final class RestRequest {
     public static Builder put(String pathOrUrl) { return new Builder("PUT", pathOrUrl); }
     public static Builder patch(String pathOrUrl) { return new Builder("PATCH", pathOrUrl); }
     public static Builder delete(String pathOrUrl) { return new Builder("DELETE", pathOrUrl); }
+    static Builder builder(String method, String pathOrUrl) { return new Builder(method, pathOrUrl); }
 
     public static final class Builder {
         private final String method;
         private final String pathOrUrl;
         private final Map<String, String> headers = new LinkedHashMap<>();
         private final Map<String, String> queryParams = new LinkedHashMap<>();
-        private String body;
+        private RequestBody body;
         private String contentType;
         private Duration timeout;
+        private Priority priority = Priority.NORMAL;
 
         private Builder(String method, String pathOrUrl) {
             this.method = Objects.requireNonNull(method, "method").toUpperCase();
@@ -81,6 +112,38 @@ public final class RestRequest {
         }
 
         public Builder body(String content, String contentType) {
+            return body(RequestBody.ofString(content), contentType);
+        }
+
+        public Builder body(byte[] content, String contentType) {
+            return body(RequestBody.ofBytes(content), contentType);
+        }
+
+        public Builder body(ByteBuffer content, String contentType) {
+            return body(RequestBody.ofByteBuffer(content), contentType);
+        }
+
+        public Builder body(Path file, String contentType) {
+            return body(RequestBody.ofFile(file), contentType);
+        }
+
+        public Builder body(Supplier<? extends InputStream> streamSupplier, String contentType) {
+            return body(RequestBody.ofInputStream(streamSupplier), contentType);
+        }
+
+        /**
+         * Serializes {@code value} once with the codec and uses the codec's media type as content type.
+         */
+        public Builder encodedBody(Object value, BodyCodec codec) {
+            Objects.requireNonNull(codec, "codec");
+            try {
+                return body(RequestBody.ofBytes(codec.encode(value)), codec.mediaType());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to encode request body", ex);
+            }
+        }
+
+        public Builder body(RequestBody content, String contentType) {
             this.body = Objects.requireNonNull(content, "content");
             this.contentType = contentType;
             return this;
@@ -95,6 +158,11 @@ public final class RestRequest {
             return this;
         }
 
+        public Builder priority(Priority priority) {
+            this.priority = Objects.requireNonNull(priority, "priority");
+            return this;
+        }
+
         public RestRequest build() {
             return new RestRequest(this);
         }
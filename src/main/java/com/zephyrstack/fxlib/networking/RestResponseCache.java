@@ -0,0 +1,39 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage SPI behind the HTTP cache of {@link RestClient}. Implementations only store and look up entries;
+ * freshness, validation ({@code ETag}/{@code Last-Modified}) and invalidation are handled by the client.
+ * Implementations must be thread-safe.
+ */
+public interface RestResponseCache {
+
+    Optional<CachedResponse> get(String key);
+
+    void put(String key, CachedResponse response);
+
+    void remove(String key);
+
+    void clear();
+
+    /**
+     * In-memory LRU cache bounded by the total size of the cached bodies.
+     */
+    static RestResponseCache inMemory(long maxBytes) {
+        return LruResponseCache.newBuilder().maxMemoryBytes(maxBytes).build();
+    }
+
+    /**
+     * In-memory LRU cache backed by an on-disk tier under {@code directory}, so entries survive memory eviction
+     * and application restarts.
+     */
+    static RestResponseCache tiered(long maxMemoryBytes, Path directory, long maxDiskBytes) {
+        return LruResponseCache.newBuilder()
+                .maxMemoryBytes(maxMemoryBytes)
+                .diskDirectory(directory)
+                .maxDiskBytes(maxDiskBytes)
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Configuration of the retry interceptor created by {@link ResilienceInterceptors#retry(RetryPolicy)}.
+ * <p>
+ * Only idempotent methods (GET, HEAD, OPTIONS, TRACE, PUT, DELETE) are retried by default; POST and PATCH are
+ * retried only when the request carries an {@code Idempotency-Key} header or
+ * {@link Builder#retryNonIdempotent(boolean)} is enabled. Delays use exponential backoff with full jitter, and a
+ * server supplied {@code Retry-After} takes precedence as long as it does not exceed {@link #maxDelay()}.
+ */
+public final class RetryPolicy {
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE", "PUT", "DELETE");
+
+    private final int maxAttempts;
+    private final Duration initialDelay;
+    private final Duration maxDelay;
+    private final Set<Integer> retryStatuses;
+    private final Predicate<Throwable> retryOnException;
+    private final boolean retryNonIdempotent;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialDelay = builder.initialDelay;
+        this.maxDelay = builder.maxDelay;
+        this.retryStatuses = Set.copyOf(builder.retryStatuses);
+        this.retryOnException = builder.retryOnException;
+        this.retryNonIdempotent = builder.retryNonIdempotent;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public static RetryPolicy defaults() {
+        return newBuilder().build();
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration initialDelay() {
+        return initialDelay;
+    }
+
+    public Duration maxDelay() {
+        return maxDelay;
+    }
+
+    boolean isRetryable(HttpRequest request) {
+        return retryNonIdempotent
+                || IDEMPOTENT_METHODS.contains(request.method())
+                || request.headers().firstValue("Idempotency-Key").isPresent();
+    }
+
+    boolean isRetryableStatus(int statusCode) {
+        return retryStatuses.contains(statusCode);
+    }
+
+    boolean isRetryableFailure(Throwable failure) {
+        return retryOnException.test(failure);
+    }
+
+    /**
+     * Full-jitter backoff for the given (1-based) attempt that just failed: a random delay between zero and
+     * {@code min(maxDelay, initialDelay * 2^(attempt-1))}.
+     */
+    long backoffMillis(int attempt) {
+        long base = Math.max(1, initialDelay.toMillis());
+        long cap = maxDelay.toMillis();
+        long exponential = attempt >= 31 ? cap : Math.min(cap, base << (attempt - 1));
+        return ThreadLocalRandom.current().nextLong(exponential + 1);
+    }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private Duration initialDelay = Duration.ofMillis(200);
+        private Duration maxDelay = Duration.ofSeconds(30);
+        private Set<Integer> retryStatuses = Set.of(408, 425, 429, 500, 502, 503, 504);
+        private Predicate<Throwable> retryOnException =
+                failure -> failure instanceof IOException && !(failure instanceof HttpStatusException);
+        private boolean retryNonIdempotent;
+
+        private Builder() {
+        }
+
+        /**
+         * Total number of attempts including the first one.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be >= 1");
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialDelay(Duration initialDelay) {
+            Objects.requireNonNull(initialDelay, "initialDelay");
+            if (initialDelay.isNegative()) throw new IllegalArgumentException("initialDelay must be >= 0");
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        /**
+         * Upper bound for computed backoff and for honoured {@code Retry-After} values; a longer
+         * {@code Retry-After} ends the retries and returns the response as-is.
+         */
+        public Builder maxDelay(Duration maxDelay) {
+            Objects.requireNonNull(maxDelay, "maxDelay");
+            if (maxDelay.isNegative() || maxDelay.isZero()) throw new IllegalArgumentException("maxDelay must be > 0");
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        public Builder retryOnStatus(Integer... statuses) {
+            this.retryStatuses = Set.of(Objects.requireNonNull(statuses, "statuses"));
+            return this;
+        }
+
+        public Builder retryOnException(Predicate<Throwable> predicate) {
+            this.retryOnException = Objects.requireNonNull(predicate, "predicate");
+            return this;
+        }
+
+        /**
+         * Allows retrying POST/PATCH requests without an {@code Idempotency-Key}. Only enable this when the
+         * server de-duplicates such calls.
+         */
+        public Builder retryNonIdempotent(boolean retryNonIdempotent) {
+            this.retryNonIdempotent = retryNonIdempotent;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
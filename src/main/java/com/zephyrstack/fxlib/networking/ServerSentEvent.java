@@ -0,0 +1,11 @@
+package com.zephyrstack.fxlib.networking;
+
+/**
+ * One event dispatched from a {@code text/event-stream} body.
+ *
+ * @param id    last event id seen on the stream when the event was dispatched, or {@code null}
+ * @param event event type, {@code "message"} unless the server named it
+ * @param data  data lines joined with {@code \n}
+ */
+public record ServerSentEvent(String id, String event, String data) {
+}
@@ -0,0 +1,51 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+
+/**
+ * Value object returned by the streaming helpers of {@link RestClient}. Unlike {@link RestResponse} the body is
+ * not buffered into a {@code String}; it is whatever the chosen body handler produces (an {@code InputStream},
+ * a line stream, a byte publisher, a file path, ...), so large payloads can be consumed in constant memory.
+ * <p>
+ * Closing the response closes the body when it is {@link AutoCloseable}, which releases the underlying
+ * connection if the body was not fully consumed.
+ *
+ * @param <T> body type
+ */
+public record StreamingRestResponse<T>(
+        int statusCode,
+        T body,
+        HttpHeaders headers,
+        URI uri,
+        HttpClient.Version version) implements AutoCloseable {
+
+    /**
+     * Indicates whether the status code is within the 2xx range.
+     */
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Closes the body if it is {@link AutoCloseable}; checked failures other than {@link IOException} are wrapped
+     * in one.
+     */
+    @Override
+    public void close() throws IOException {
+        if (body instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException | RuntimeException ex) {
+                throw ex;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while closing response body", ex);
+            } catch (Exception ex) {
+                throw new IOException("Unable to close response body", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,470 @@
+package com.zephyrstack.fxlib.networking;
+
+import com.zephyrstack.fxlib.concurrent.FxBatcher;
+import com.zephyrstack.fxlib.concurrent.FxExecutors;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Self-healing WebSocket connection built on {@link java.net.http.WebSocket}.
+ * <ul>
+ *     <li>Reconnects with jittered exponential backoff whenever the connection fails or the server closes it.</li>
+ *     <li>Sends a ping every heartbeat interval and drops the connection when no pong arrives in time, so dead
+ *     peers behind NATs and proxies are detected.</li>
+ *     <li>Reassembles fragmented messages into per-connection buffers that are reused from message to message;
+ *     single-frame messages skip the buffer entirely.</li>
+ *     <li>Delivers complete messages in batches on the delivery executor (the FX Application Thread by default):
+ *     everything received between two drains is handed over in one call. When
+ *     {@link Builder#bufferCapacity(int)} messages are waiting, no further frames are requested from the socket.</li>
+ * </ul>
+ * Sends are serialized: each one starts after the previous completed, as {@link WebSocket} requires.
+ */
+public final class WebSocketClient implements AutoCloseable {
+    private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+    public enum State { CONNECTING, OPEN, CLOSED }
+
+    private final URI uri;
+    private final HttpClient httpClient;
+    private final Map<String, String> headers;
+    private final List<String> subprotocols;
+    private final Duration connectTimeout;
+    private final Duration heartbeatInterval;
+    private final Duration heartbeatTimeout;
+    private final Duration reconnectDelay;
+    private final Duration maxReconnectDelay;
+    private final Executor deliveryExecutor;
+    private final Consumer<? super State> stateListener;
+    private final Consumer<? super Throwable> errorHandler;
+    private final FxBatcher<WebSocketMessage> sink;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private volatile WebSocket socket;
+    private volatile State state = State.CLOSED;
+    private CompletableFuture<?> sendTail = CompletableFuture.completedFuture(null);
+    private ScheduledFuture<?> heartbeat;
+    private long nextDelayMillis;
+
+    private WebSocketClient(Builder builder) {
+        this.uri = builder.uri;
+        this.httpClient = builder.httpClient != null ? builder.httpClient : HttpClient.newHttpClient();
+        this.headers = Map.copyOf(builder.headers);
+        this.subprotocols = List.copyOf(builder.subprotocols);
+        this.connectTimeout = builder.connectTimeout;
+        this.heartbeatInterval = builder.heartbeatInterval;
+        this.heartbeatTimeout = builder.heartbeatTimeout;
+        this.reconnectDelay = builder.reconnectDelay;
+        this.maxReconnectDelay = builder.maxReconnectDelay;
+        this.deliveryExecutor = builder.deliveryExecutor;
+        this.stateListener = builder.stateListener;
+        this.errorHandler = builder.errorHandler;
+        Consumer<? super List<WebSocketMessage>> listener = builder.listener;
+        this.sink = new FxBatcher<>(deliveryExecutor, builder.bufferCapacity, batch -> {
+            if (!closed.get()) listener.accept(batch);
+        });
+        this.nextDelayMillis = reconnectDelay.toMillis();
+    }
+
+    public static Builder newBuilder(URI uri, Consumer<? super List<WebSocketMessage>> listener) {
+        return new Builder(uri, listener);
+    }
+
+    /**
+     * Opens the connection; subsequent calls are no-ops. Failures of the first attempt are retried like any
+     * other disconnect.
+     */
+    public WebSocketClient connect() {
+        if (closed.get()) throw new IllegalStateException("WebSocketClient is closed");
+        if (started.compareAndSet(false, true)) open();
+        return this;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public boolean isOpen() {
+        return state == State.OPEN;
+    }
+
+    public CompletableFuture<Void> sendText(CharSequence text) {
+        Objects.requireNonNull(text, "text");
+        return enqueueSend(ws -> ws.sendText(text, true));
+    }
+
+    public CompletableFuture<Void> sendBinary(ByteBuffer data) {
+        Objects.requireNonNull(data, "data");
+        return enqueueSend(ws -> ws.sendBinary(data, true));
+    }
+
+    public Stats stats() {
+        FxBatcher.Stats delivery = sink.stats();
+        return new Stats(state, received.sum(), delivery.batches(), delivery.pending(), reconnects.sum());
+    }
+
+    /**
+     * Sends a normal closure and stops reconnecting. Messages not yet delivered are dropped.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        WebSocket current;
+        synchronized (this) {
+            cancelHeartbeat();
+            current = socket;
+            socket = null;
+        }
+        if (current != null) {
+            current.sendClose(WebSocket.NORMAL_CLOSURE, "")
+                    .orTimeout(5, TimeUnit.SECONDS)
+                    .whenComplete((ws, throwable) -> current.abort());
+        }
+        setState(State.CLOSED);
+    }
+
+    private void open() {
+        if (closed.get()) return;
+        setState(State.CONNECTING);
+        Connection connection = new Connection();
+        WebSocket.Builder builder = httpClient.newWebSocketBuilder().connectTimeout(connectTimeout);
+        headers.forEach(builder::header);
+        if (!subprotocols.isEmpty()) {
+            builder.subprotocols(subprotocols.get(0),
+                    subprotocols.subList(1, subprotocols.size()).toArray(String[]::new));
+        }
+        CompletableFuture<WebSocket> attempt;
+        try {
+            attempt = builder.buildAsync(uri, connection);
+        } catch (RuntimeException ex) {
+            attempt = CompletableFuture.failedFuture(ex);
+        }
+        attempt.whenComplete((ws, throwable) -> {
+            if (throwable != null) {
+                reconnect(null, throwable);
+                return;
+            }
+            synchronized (this) {
+                if (closed.get()) {
+                    ws.abort();
+                    return;
+                }
+                socket = ws;
+                if (connection.finished) {
+                    reconnect(ws, null);
+                    return;
+                }
+                nextDelayMillis = reconnectDelay.toMillis();
+                startHeartbeat(ws, connection);
+            }
+            setState(State.OPEN);
+        });
+    }
+
+    /**
+     * Drops {@code failed} (or a connection that never opened when {@code null}) and schedules the next attempt.
+     * Callbacks of connections that were already replaced are ignored.
+     */
+    private void reconnect(WebSocket failed, Throwable cause) {
+        long delay;
+        synchronized (this) {
+            if (closed.get() || (failed != null && failed != socket)) return;
+            cancelHeartbeat();
+            socket = null;
+            delay = nextDelayMillis;
+            nextDelayMillis = Math.min(Math.max(delay, 1L) * 2, maxReconnectDelay.toMillis());
+        }
+        if (failed != null) failed.abort();
+        if (cause != null) report(cause);
+        reconnects.increment();
+        setState(State.CONNECTING);
+        FxExecutors.scheduler().schedule(this::open,
+                delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1), TimeUnit.MILLISECONDS);
+    }
+
+    private void startHeartbeat(WebSocket ws, Connection connection) {
+        if (heartbeatInterval.isZero()) return;
+        long timeoutNanos = heartbeatTimeout.toNanos();
+        heartbeat = FxExecutors.scheduler().scheduleAtFixedRate(() -> {
+            long pingSent = connection.pingSentNanos;
+            if (pingSent != 0L && connection.pongNanos < pingSent && System.nanoTime() - pingSent > timeoutNanos) {
+                reconnect(ws, new IOException("No pong received within " + heartbeatTimeout));
+                return;
+            }
+            if (connection.pingSentNanos == 0L || connection.pongNanos >= connection.pingSentNanos) {
+                connection.pingSentNanos = System.nanoTime();
+                ws.sendPing(ByteBuffer.allocate(0));
+            }
+        }, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+            heartbeat = null;
+        }
+    }
+
+    private synchronized CompletableFuture<Void> enqueueSend(Function<WebSocket, CompletableFuture<WebSocket>> send) {
+        WebSocket ws = socket;
+        if (ws == null) return CompletableFuture.failedFuture(new IOException("WebSocket is not connected"));
+        CompletableFuture<Void> next = sendTail
+                .handle((ignored, throwable) -> null)
+                .thenCompose(ignored -> send.apply(ws))
+                .thenApply(ignored -> null);
+        sendTail = next;
+        return next;
+    }
+
+    private void setState(State next) {
+        if (state == next) return;
+        state = next;
+        if (stateListener != null) deliveryExecutor.execute(() -> stateListener.accept(next));
+    }
+
+    private void report(Throwable failure) {
+        if (errorHandler != null && !closed.get()) deliveryExecutor.execute(() -> errorHandler.accept(failure));
+    }
+
+    /**
+     * Listener of one physical connection; owns the reassembly buffers.
+     */
+    private final class Connection implements WebSocket.Listener {
+        private final StringBuilder text = new StringBuilder();
+        private ByteBuffer binary = ByteBuffer.allocate(0);
+        private volatile long pingSentNanos;
+        private volatile long pongNanos;
+        private volatile boolean finished;
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            if (!last) {
+                text.append(data);
+                webSocket.request(1);
+                return null;
+            }
+            String message;
+            if (text.isEmpty()) {
+                message = data.toString();
+            } else {
+                message = text.append(data).toString();
+                text.setLength(0);
+                if (text.capacity() > MAX_RETAINED_BUFFER) text.trimToSize();
+            }
+            deliver(webSocket, WebSocketMessage.text(message));
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            if (!last) {
+                append(data);
+                webSocket.request(1);
+                return null;
+            }
+            byte[] message;
+            if (binary.position() == 0) {
+                message = new byte[data.remaining()];
+                data.get(message);
+            } else {
+                append(data);
+                binary.flip();
+                message = new byte[binary.remaining()];
+                binary.get(message);
+                binary = binary.capacity() > MAX_RETAINED_BUFFER ? ByteBuffer.allocate(0) : binary.clear();
+            }
+            deliver(webSocket, WebSocketMessage.binary(message));
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPing(WebSocket webSocket, ByteBuffer message) {
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onPong(WebSocket webSocket, ByteBuffer message) {
+            pongNanos = System.nanoTime();
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            finished = true;
+            reconnect(webSocket, null);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            finished = true;
+            reconnect(webSocket, error);
+        }
+
+        private void append(ByteBuffer data) {
+            if (binary.remaining() < data.remaining()) {
+                int required = binary.position() + data.remaining();
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(required, binary.capacity() * 2));
+                binary.flip();
+                grown.put(binary);
+                binary = grown;
+            }
+            binary.put(data);
+        }
+
+        /**
+         * Hands the message to the batcher and asks for the next frame. When the batcher is full the wait happens
+         * on a virtual thread so the HttpClient's threads never block; no frame is requested until it succeeds.
+         */
+        private void deliver(WebSocket webSocket, WebSocketMessage message) {
+            received.increment();
+            if (sink.offer(message)) {
+                webSocket.request(1);
+                return;
+            }
+            Thread.ofVirtual().name("websocket-backpressure").start(() -> {
+                try {
+                    sink.put(message);
+                    webSocket.request(1);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    /**
+     * Snapshot of connection activity.
+     *
+     * @param state      current connection state
+     * @param received   complete messages received
+     * @param batches    batches handed to the listener
+     * @param pending    messages waiting for delivery
+     * @param reconnects reconnect attempts so far
+     */
+    public record Stats(State state, long received, long batches, int pending, long reconnects) {
+    }
+
+    public static final class Builder {
+        private final URI uri;
+        private final Consumer<? super List<WebSocketMessage>> listener;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private final List<String> subprotocols = new ArrayList<>();
+        private HttpClient httpClient;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration heartbeatInterval = Duration.ofSeconds(30);
+        private Duration heartbeatTimeout = Duration.ofSeconds(10);
+        private Duration reconnectDelay = Duration.ofSeconds(1);
+        private Duration maxReconnectDelay = Duration.ofSeconds(30);
+        private Executor deliveryExecutor = FxExecutors.fx();
+        private int bufferCapacity = 10_000;
+        private Consumer<? super State> stateListener;
+        private Consumer<? super Throwable> errorHandler;
+
+        private Builder(URI uri, Consumer<? super List<WebSocketMessage>> listener) {
+            this.uri = Objects.requireNonNull(uri, "uri");
+            this.listener = Objects.requireNonNull(listener, "listener");
+        }
+
+        public Builder httpClient(HttpClient client) {
+            this.httpClient = client;
+            return this;
+        }
+
+        public Builder header(String name, String value) {
+            headers.put(Objects.requireNonNull(name, "name"), Objects.requireNonNull(value, "value"));
+            return this;
+        }
+
+        public Builder subprotocols(String... protocols) {
+            subprotocols.clear();
+            subprotocols.addAll(List.of(protocols));
+            return this;
+        }
+
+        public Builder connectTimeout(Duration timeout) {
+            this.connectTimeout = Objects.requireNonNull(timeout, "timeout");
+            return this;
+        }
+
+        /**
+         * Ping cadence and how long to wait for the matching pong; {@link Duration#ZERO} disables heartbeats.
+         */
+        public Builder heartbeat(Duration interval, Duration timeout) {
+            Objects.requireNonNull(interval, "interval");
+            Objects.requireNonNull(timeout, "timeout");
+            if (interval.isNegative() || timeout.isNegative()) throw new IllegalArgumentException("Negative duration");
+            this.heartbeatInterval = interval;
+            this.heartbeatTimeout = timeout;
+            return this;
+        }
+
+        public Builder reconnectDelay(Duration initial, Duration max) {
+            Objects.requireNonNull(initial, "initial");
+            Objects.requireNonNull(max, "max");
+            if (initial.isNegative() || max.compareTo(initial) < 0) {
+                throw new IllegalArgumentException("Require 0 <= initial <= max");
+            }
+            this.reconnectDelay = initial;
+            this.maxReconnectDelay = max;
+            return this;
+        }
+
+        /**
+         * Executor message batches, state changes and errors are delivered on; defaults to {@link FxExecutors#fx()}.
+         */
+        public Builder deliveryExecutor(Executor executor) {
+            this.deliveryExecutor = Objects.requireNonNull(executor, "executor");
+            return this;
+        }
+
+        public Builder bufferCapacity(int capacity) {
+            if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+            this.bufferCapacity = capacity;
+            return this;
+        }
+
+        public Builder onStateChange(Consumer<? super State> listener) {
+            this.stateListener = listener;
+            return this;
+        }
+
+        public Builder onError(Consumer<? super Throwable> handler) {
+            this.errorHandler = handler;
+            return this;
+        }
+
+        public WebSocketClient build() {
+            return new WebSocketClient(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.zephyrstack.fxlib.networking;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * Complete (reassembled) message received by {@link WebSocketClient}: either text or binary.
+ */
+public final class WebSocketMessage {
+    private final String text;
+    private final byte[] data;
+
+    private WebSocketMessage(String text, byte[] data) {
+        this.text = text;
+        this.data = data;
+    }
+
+    public static WebSocketMessage text(String text) {
+        return new WebSocketMessage(Objects.requireNonNull(text, "text"), null);
+    }
+
+    public static WebSocketMessage binary(byte[] data) {
+        return new WebSocketMessage(null, Objects.requireNonNull(data, "data"));
+    }
+
+    public boolean isText() {
+        return text != null;
+    }
+
+    /**
+     * Text payload.
+     *
+     * @throws IllegalStateException for binary messages
+     */
+    public String text() {
+        if (text == null) throw new IllegalStateException("Binary message");
+        return text;
+    }
+
+    /**
+     * Read-only view of the binary payload.
+     *
+     * @throws IllegalStateException for text messages
+     */
+    public ByteBuffer data() {
+        if (data == null) throw new IllegalStateException("Text message");
+        return ByteBuffer.wrap(data).asReadOnlyBuffer();
+    }
+
+    @Override
+    public String toString() {
+        return text != null
+                ? "WebSocketMessage{text=" + (text.length() > 64 ? text.substring(0, 64) + "..." : text) + '}'
+                : "WebSocketMessage{binary=" + data.length + " bytes}";
+    }
+}
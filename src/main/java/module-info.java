@@ -15,4 +15,6 @@ module JavaFxHelperibrary {
     exports com.zephyrstack.fxlib.networking;
     exports com.zephyrstack.fxlib.control.controls.table;
     exports com.zephyrstack.fxlib.control;
+
+    uses com.zephyrstack.fxlib.networking.BodyCodec;
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.zephyrstack.fxlib.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Half-open admission races: trial slots are handed out exactly once, and every way a call can end gives its slot
+ * back or settles it.
+ */
+class CircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofMillis(5);
+
+    @Test
+    void halfOpenGrantsExactlyTheTrialCountUnderContention() throws Exception {
+        int trials = 3;
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN_DURATION, trials);
+        openAndWait(breaker);
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ConcurrentLinkedQueue<CircuitBreaker.Permit> granted = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < 1_000; attempt++) {
+                        CircuitBreaker.Permit permit = breaker.tryAcquirePermit();
+                        if (permit != null) granted.add(permit);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) worker.get(10, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(trials, granted.size());
+        assertSame(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        granted.forEach(CircuitBreaker.Permit::release);
+        for (int i = 0; i < trials; i++) assertNotNull(breaker.tryAcquirePermit());
+        assertNull(breaker.tryAcquirePermit());
+    }
+
+    @Test
+    void permitFromClosedIsIgnoredOnceHalfOpen() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN_DURATION, 1);
+        CircuitBreaker.Permit staleSuccess = breaker.tryAcquirePermit();
+        CircuitBreaker.Permit staleRelease = breaker.tryAcquirePermit();
+        openAndWait(breaker);
+
+        CircuitBreaker.Permit trial = breaker.tryAcquirePermit();
+        assertNotNull(trial);
+        assertSame(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        staleSuccess.recordSuccess();
+        assertSame(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        staleRelease.release();
+        assertNull(breaker.tryAcquirePermit());
+
+        trial.recordSuccess();
+        assertSame(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void cancellingAnAsyncTrialReturnsItsSlot() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN_DURATION, 1);
+        openAndWait(breaker);
+
+        CompletableFuture<String> result = breaker.executeAsync(CompletableFuture::new);
+        assertNull(breaker.tryAcquirePermit());
+
+        result.cancel(true);
+        assertSame(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertNotNull(breaker.tryAcquirePermit());
+    }
+
+    @Test
+    void errorDuringTrialSettlesThePermit() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN_DURATION, 1);
+        openAndWait(breaker);
+
+        assertThrows(AssertionError.class, () -> breaker.execute(() -> {
+            throw new AssertionError("boom");
+        }));
+        assertSame(CircuitBreaker.State.OPEN, breaker.state());
+
+        Thread.sleep(OPEN_DURATION.toMillis() * 4);
+        assertThrows(StackOverflowError.class, () -> breaker.executeAsync(() -> {
+            throw new StackOverflowError();
+        }));
+        assertSame(CircuitBreaker.State.OPEN, breaker.state());
+
+        Thread.sleep(OPEN_DURATION.toMillis() * 4);
+        assertEquals("ok", breaker.execute(() -> "ok"));
+        assertSame(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private static void openAndWait(CircuitBreaker breaker) throws InterruptedException {
+        breaker.tryAcquirePermit().recordFailure();
+        assertSame(CircuitBreaker.State.OPEN, breaker.state());
+        Thread.sleep(OPEN_DURATION.toMillis() * 4);
+    }
+}